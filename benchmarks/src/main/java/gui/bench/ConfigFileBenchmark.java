@@ -0,0 +1,101 @@
+package gui.bench;
+
+import gui.model.ConfigFileManager;
+import gui.model.Server;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmarks for saving and loading the server configuration at different fleet sizes, as YAML alone
+ * and with the binary snapshot that startup loads instead when it is up to date.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ConfigFileBenchmark {
+    @Param({"1000", "10000", "100000"})
+    public int servers;
+
+    private ConfigFileManager configFileManager;
+    private ConfigFileManager snapshotConfigFileManager;
+    private List<Server> fleet;
+    private Path directory;
+    private String savePath;
+    private String loadPath;
+    private PrintStream originalOut;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        // ConfigFileManager reports every save and load on stdout, which would flood the benchmark output
+        originalOut = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+
+        configFileManager = new ConfigFileManager();
+        snapshotConfigFileManager = new ConfigFileManager();
+        snapshotConfigFileManager.setBinarySnapshotEnabled(true);
+        fleet = new ArrayList<>(servers);
+        for (int i = 0; i < servers; i++) {
+            fleet.add(ServerManagerBenchmark.newServer("bench-" + i, i));
+        }
+
+        directory = Files.createTempDirectory("config-bench");
+        savePath = directory.resolve("save.yaml").toString();
+        loadPath = directory.resolve("load.yaml").toString();
+        // Writes both formats; the YAML-only manager ignores the snapshot
+        snapshotConfigFileManager.saveConfigurations(fleet, loadPath);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        System.setOut(originalOut);
+        try (var files = Files.list(directory)) {
+            for (Path file : files.toList()) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    @Benchmark
+    public void save() {
+        configFileManager.saveConfigurations(fleet, savePath);
+    }
+
+    @Benchmark
+    public void saveWithBinarySnapshot() {
+        snapshotConfigFileManager.saveConfigurations(fleet, savePath);
+    }
+
+    @Benchmark
+    public List<Server> load() {
+        return configFileManager.loadConfigurations(loadPath);
+    }
+
+    @Benchmark
+    public List<Server> loadBinarySnapshot() {
+        return snapshotConfigFileManager.loadConfigurations(loadPath);
+    }
+}
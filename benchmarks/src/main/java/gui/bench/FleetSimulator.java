@@ -0,0 +1,237 @@
+package gui.bench;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import gui.model.Config;
+import gui.model.ConfigFileManager;
+import gui.model.HttpHealthProbe;
+import gui.model.Id;
+import gui.model.Server;
+import gui.model.ServerManager;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Simulated fleet of health endpoints on the local machine, for load-testing the probe engine without a network.
+ * Every simulated server gets its own loopback address (127.0.0.2, 127.0.0.3, ...) on one shared port, so
+ * each is a distinct endpoint to the probe engine while a single listener serves them all; this relies on
+ * Linux routing all of 127.0.0.0/8 to the loopback interface. Each endpoint is assigned a behaviour from a
+ * seeded random generator, so runs are reproducible:
+ * <ul>
+ *     <li>healthy: answers after a log-normally distributed latency, failing with 503 at the error rate</li>
+ *     <li>flapping: like healthy, but down (503) for every other flap period</li>
+ *     <li>hanging: accepts the request and only closes it after the hang time, to exercise probe timeouts</li>
+ * </ul>
+ * A matching config.yaml is written on start. With -Dsim.engine=true a {@link ServerManager} is also started
+ * against the fleet in the same process and its throughput, in-flight probes and heap are printed.
+ *
+ * Usage: FleetSimulator [servers] [configFile] [port]
+ * Tuning: -Dsim.seed=42 -Dsim.latencyMedianMillis=20 -Dsim.latencySigma=0.6 -Dsim.errorRate=0.01
+ *         -Dsim.flappingFraction=0.05 -Dsim.flapPeriodSeconds=60 -Dsim.hangFraction=0.01 -Dsim.hangSeconds=60
+ *         -Dsim.intervalSeconds=10 -Dsim.engine=false -Dsim.reportSeconds=5
+ */
+public class FleetSimulator {
+    private static final byte HEALTHY = 0;
+    private static final byte FLAPPING = 1;
+    private static final byte HANGING = 2;
+    // Loopback addresses start at 127.0.0.2 so that 127.0.0.1 stays free for anything else on the port
+    private static final int FIRST_ADDRESS = 0x7f000002;
+
+    private final int serverCount;
+    private final long seed;
+    private final double latencyMedianMillis;
+    private final double latencySigma;
+    private final double errorRate;
+    private final long flapPeriodMillis;
+    private final long hangMillis;
+    private final byte[] behaviours;
+    private final long[] flapPhaseMillis;
+    private final LongAdder answered = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder hung = new LongAdder();
+    private HttpServer httpServer;
+
+    public FleetSimulator(int serverCount) {
+        this.serverCount = serverCount;
+        this.seed = Long.getLong("sim.seed", 42);
+        this.latencyMedianMillis = doubleProperty("sim.latencyMedianMillis", 20);
+        this.latencySigma = doubleProperty("sim.latencySigma", 0.6);
+        this.errorRate = doubleProperty("sim.errorRate", 0.01);
+        this.flapPeriodMillis = TimeUnit.SECONDS.toMillis(Long.getLong("sim.flapPeriodSeconds", 60));
+        this.hangMillis = TimeUnit.SECONDS.toMillis(Long.getLong("sim.hangSeconds", 60));
+        double flappingFraction = doubleProperty("sim.flappingFraction", 0.05);
+        double hangFraction = doubleProperty("sim.hangFraction", 0.01);
+
+        behaviours = new byte[serverCount];
+        flapPhaseMillis = new long[serverCount];
+        Random random = new Random(seed);
+        for (int i = 0; i < serverCount; i++) {
+            double roll = random.nextDouble();
+            behaviours[i] = roll < hangFraction ? HANGING : roll < hangFraction + flappingFraction ? FLAPPING : HEALTHY;
+            flapPhaseMillis[i] = (long) (random.nextDouble() * 2 * flapPeriodMillis);
+        }
+    }
+
+    private static double doubleProperty(String name, double defaultValue) {
+        String value = System.getProperty(name);
+        return value != null ? Double.parseDouble(value) : defaultValue;
+    }
+
+    /**
+     * Returns the loopback address simulated server number index answers on.
+     */
+    public static String hostOf(int index) {
+        int address = FIRST_ADDRESS + index;
+        return "127." + ((address >>> 16) & 0xff) + "." + ((address >>> 8) & 0xff) + "." + (address & 0xff);
+    }
+
+    public void start(int port) throws IOException {
+        if (FIRST_ADDRESS + serverCount > 0x7fffffff) {
+            throw new IllegalArgumentException("Too many servers for 127.0.0.0/8: " + serverCount);
+        }
+        // Bound to the wildcard address so every loopback address reaches it
+        httpServer = HttpServer.create(new InetSocketAddress(port), 4096);
+        httpServer.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        httpServer.createContext("/health", this::handle);
+        httpServer.start();
+    }
+
+    public int getPort() {
+        return httpServer.getAddress().getPort();
+    }
+
+    public void stop() {
+        httpServer.stop(0);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        InetAddress local = exchange.getLocalAddress().getAddress();
+        byte[] bytes = local.getAddress();
+        int index = bytes.length == 4 ? (((bytes[0] & 0xff) << 24 | (bytes[1] & 0xff) << 16 | (bytes[2] & 0xff) << 8 | (bytes[3] & 0xff)) - FIRST_ADDRESS) : -1;
+        if (index < 0 || index >= serverCount) {
+            exchange.sendResponseHeaders(404, -1);
+            exchange.close();
+            return;
+        }
+
+        if (behaviours[index] == HANGING) {
+            // Far longer than any probe timeout; closing eventually keeps hung connections from piling up
+            hung.increment();
+            sleep(hangMillis);
+            exchange.close();
+            return;
+        }
+
+        // Per request randomness only needs to be plausible, not reproducible across runs
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long latencyMillis = Math.round(latencyMedianMillis * Math.exp(latencySigma * random.nextGaussian()));
+        sleep(latencyMillis);
+
+        boolean down = behaviours[index] == FLAPPING
+                && ((System.currentTimeMillis() + flapPhaseMillis[index]) / flapPeriodMillis) % 2 == 1;
+        if (down || random.nextDouble() < errorRate) {
+            failed.increment();
+            exchange.sendResponseHeaders(503, -1);
+        } else {
+            answered.increment();
+            exchange.sendResponseHeaders(200, -1);
+        }
+        exchange.close();
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Builds the servers that probe this fleet, one per simulated endpoint.
+     */
+    public List<Server> servers(int port, int intervalSeconds) {
+        List<Server> servers = new ArrayList<>(serverCount);
+        for (int i = 0; i < serverCount; i++) {
+            String behaviour = behaviours[i] == HANGING ? "hanging" : behaviours[i] == FLAPPING ? "flapping" : "healthy";
+            Config config = new Config("Sim " + i + " (" + behaviour + ")", hostOf(i), port, intervalSeconds);
+            servers.add(new Server(new Id("sim-" + i), config));
+        }
+        return servers;
+    }
+
+    public String describe() {
+        int flapping = 0;
+        int hanging = 0;
+        for (byte behaviour : behaviours) {
+            if (behaviour == FLAPPING) {
+                flapping++;
+            } else if (behaviour == HANGING) {
+                hanging++;
+            }
+        }
+        return String.format("%d endpoints (%d healthy, %d flapping, %d hanging), latency median %.0f ms sigma %.2f, "
+                        + "error rate %.2f%%, flap period %d s, seed %d",
+                serverCount, serverCount - flapping - hanging, flapping, hanging, latencyMedianMillis, latencySigma,
+                errorRate * 100, TimeUnit.MILLISECONDS.toSeconds(flapPeriodMillis), seed);
+    }
+
+    public static void main(String[] args) throws Exception {
+        HttpHealthProbe.allowHostHeader(); // As the application does at startup
+        int serverCount = args.length > 0 ? Integer.parseInt(args[0]) : 5_000;
+        String configFile = args.length > 1 ? args[1] : "config.yaml";
+        int port = args.length > 2 ? Integer.parseInt(args[2]) : 0;
+        int intervalSeconds = Integer.getInteger("sim.intervalSeconds", 10);
+        int reportSeconds = Integer.getInteger("sim.reportSeconds", 5);
+        boolean runEngine = Boolean.getBoolean("sim.engine");
+
+        FleetSimulator simulator = new FleetSimulator(serverCount);
+        simulator.start(port);
+        List<Server> servers = simulator.servers(simulator.getPort(), intervalSeconds);
+        new ConfigFileManager().saveConfigurations(servers, configFile);
+        System.out.println("Simulating " + simulator.describe());
+        System.out.println("Listening on port " + simulator.getPort() + ", probe config written to " + configFile);
+
+        ServerManager manager = null;
+        if (runEngine) {
+            manager = new ServerManager();
+            manager.startBatchOperation();
+            for (Server server : servers) {
+                manager.addServer(server);
+            }
+            manager.endBatchOperation(false);
+        }
+
+        Runtime runtime = Runtime.getRuntime();
+        long lastCompleted = 0;
+        while (true) {
+            Thread.sleep(TimeUnit.SECONDS.toMillis(reportSeconds));
+            String line = String.format("served %d ok, %d failed, %d hung",
+                    simulator.answered.sum(), simulator.failed.sum(), simulator.hung.sum());
+            if (manager != null) {
+                long completed = manager.getProbesCompleted();
+                int online = 0;
+                for (Server server : manager.getAllServers()) {
+                    if (server.getStatus() == Server.Status.ONLINE) {
+                        online++;
+                    }
+                }
+                line += String.format(" | engine %.0f probes/s, %d in flight, %d skipped, %d/%d online, heap %d MB",
+                        (completed - lastCompleted) / (double) reportSeconds, manager.getProbesInFlight(),
+                        manager.getProbesSkipped(), online, serverCount,
+                        (runtime.totalMemory() - runtime.freeMemory()) / (1024 * 1024));
+                lastCompleted = completed;
+            }
+            System.out.println(line);
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package gui.bench;
+
+import com.sun.net.httpserver.HttpServer;
+import gui.model.Config;
+import gui.model.HttpHealthProbe;
+import gui.model.Id;
+import gui.model.Server;
+import gui.model.ServerManager;
+
+import java.lang.management.ManagementFactory;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+
+/**
+ * Compares the original per-probe HTTP path (format the URL, parse a URI and build a request every time)
+ * with {@link HttpHealthProbe}'s cached request templates in GET and HEAD mode.
+ * Every variant probes the same servers for several rounds against a local server that counts
+ * the distinct client connections it sees, which shows how many TCP handshakes were needed.
+ *
+ * Usage: HttpProbeBenchmark [servers] [rounds]
+ */
+public class HttpProbeBenchmark {
+
+    private interface Variant {
+        void probe(Server server, CountDownLatch done);
+
+        void shutdown();
+    }
+
+    public static void main(String[] args) throws Exception {
+        HttpHealthProbe.allowHostHeader(); // As the application does at startup
+        int serverCount = args.length > 0 ? Integer.parseInt(args[0]) : 1_000;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        // The JDK server closes idle connections beyond 200 by default, which would hide client-side reuse
+        System.setProperty("sun.net.httpserver.maxIdleConnections", String.valueOf(serverCount * 2));
+
+        System.out.printf("%d servers, %d rounds%n", serverCount, rounds);
+        System.out.printf("%-10s %10s %14s %16s %16s%n",
+                "path", "probes", "connections", "KB alloc/probe", "us/probe");
+        run("legacy", legacyVariant(), serverCount, rounds, Config.ProbeType.HTTP);
+        run("template", templateVariant(), serverCount, rounds, Config.ProbeType.HTTP);
+        run("head", templateVariant(), serverCount, rounds, Config.ProbeType.HTTP_HEAD);
+        System.exit(0);
+    }
+
+    private static void run(String name, Variant variant, int serverCount, int rounds, Config.ProbeType probeType)
+            throws Exception {
+        // A fresh server per variant, so idle connections left by one variant do not count against the next
+        Set<InetSocketAddress> connections = ConcurrentHashMap.newKeySet();
+        HttpServer healthServer = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 4096);
+        healthServer.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        healthServer.createContext("/health", exchange -> {
+            connections.add(exchange.getRemoteAddress());
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+        });
+        healthServer.start();
+        int port = healthServer.getAddress().getPort();
+
+        Server[] servers = new Server[serverCount];
+        for (int i = 0; i < serverCount; i++) {
+            Config config = new Config("Bench " + i, "127.0.0.1", port);
+            config.setProbeType(probeType);
+            servers[i] = new Server(new Id("bench-" + i), config);
+        }
+
+        // One warm-up round so class loading and the first handshakes are not measured
+        probeRound(variant, servers);
+        connections.clear();
+
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long allocatedBefore = threads.getTotalThreadAllocatedBytes();
+        long start = System.nanoTime();
+        for (int r = 0; r < rounds; r++) {
+            probeRound(variant, servers);
+        }
+        long elapsedNanos = System.nanoTime() - start;
+        long allocated = threads.getTotalThreadAllocatedBytes() - allocatedBefore;
+        variant.shutdown();
+        healthServer.stop(0);
+
+        long probes = (long) serverCount * rounds;
+        System.out.printf("%-10s %10d %14d %16.2f %16.1f%n", name, probes, connections.size(),
+                allocated / 1024.0 / probes, elapsedNanos / 1000.0 / probes);
+    }
+
+    private static void probeRound(Variant variant, Server[] servers) throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(servers.length);
+        for (Server server : servers) {
+            variant.probe(server, done);
+        }
+        done.await();
+    }
+
+    private static Variant templateVariant() {
+        HttpHealthProbe probe = new HttpHealthProbe(ServerManager.ProbeEngine.PLATFORM);
+        return new Variant() {
+            public void probe(Server server, CountDownLatch done) {
+                probe.probe(server, (online, roundTripNanos) -> done.countDown());
+            }
+
+            public void shutdown() {
+                probe.shutdown();
+            }
+        };
+    }
+
+    // The request construction ServerManager used before request templates were introduced
+    private static Variant legacyVariant() {
+        var executor = Executors.newCachedThreadPool();
+        HttpClient httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(executor)
+                .build();
+        return new Variant() {
+            public void probe(Server server, CountDownLatch done) {
+                String url = String.format("http://%s:%d/health",
+                        server.getConfig().getHost(),
+                        server.getConfig().getPort());
+                HttpRequest request = HttpRequest.newBuilder()
+                        .uri(URI.create(url))
+                        .timeout(Duration.ofSeconds(2))
+                        .GET()
+                        .build();
+                httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                        .handle((response, ex) -> {
+                            done.countDown();
+                            return null;
+                        });
+            }
+
+            public void shutdown() {
+                executor.shutdownNow();
+            }
+        };
+    }
+}
@@ -0,0 +1,87 @@
+package gui.bench;
+
+import com.sun.net.httpserver.HttpServer;
+import gui.model.Config;
+import gui.model.HttpHealthProbe;
+import gui.model.Id;
+import gui.model.Server;
+import gui.model.ServerManager;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.net.InetSocketAddress;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the steady-state probe throughput of each {@link ServerManager.ProbeEngine} against a local
+ * HTTP server that answers every /health request after a fixed delay.
+ *
+ * Usage: ProbeEngineBenchmark [servers] [latencyMs] [intervalSeconds] [durationSeconds]
+ */
+public class ProbeEngineBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        HttpHealthProbe.allowHostHeader(); // As the application does at startup
+        int serverCount = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int latencyMs = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+        int intervalSeconds = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+        int durationSeconds = args.length > 3 ? Integer.parseInt(args[3]) : 30;
+
+        HttpServer healthServer = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 4096);
+        healthServer.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        healthServer.createContext("/health", exchange -> {
+            try {
+                Thread.sleep(latencyMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+        });
+        healthServer.start();
+        int port = healthServer.getAddress().getPort();
+
+        System.out.printf("%d servers, %d ms health latency, %d s interval, %d s run%n",
+                serverCount, latencyMs, intervalSeconds, durationSeconds);
+        System.out.printf("%-10s %10s %14s %14s %16s%n",
+                "engine", "probes", "probes/sec", "peak in-flight", "peak threads");
+        try {
+            for (ServerManager.ProbeEngine engine : ServerManager.ProbeEngine.values()) {
+                run(engine, serverCount, port, intervalSeconds, durationSeconds);
+            }
+        } finally {
+            healthServer.stop(0);
+        }
+        System.exit(0);
+    }
+
+    private static void run(ServerManager.ProbeEngine engine, int serverCount, int port,
+                            int intervalSeconds, int durationSeconds) throws InterruptedException {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        threads.resetPeakThreadCount();
+
+        ServerManager manager = new ServerManager(engine);
+        manager.startBatchOperation();
+        for (int i = 0; i < serverCount; i++) {
+            Config config = new Config("Bench " + i, "127.0.0.1", port, intervalSeconds);
+            manager.addServer(new Server(new Id("bench-" + i), config));
+        }
+        manager.endBatchOperation(false);
+
+        long start = System.nanoTime();
+        long end = start + TimeUnit.SECONDS.toNanos(durationSeconds);
+        int peakInFlight = 0;
+        while (System.nanoTime() < end) {
+            peakInFlight = Math.max(peakInFlight, manager.getProbesInFlight());
+            Thread.sleep(1);
+        }
+        long completed = manager.getProbesCompleted();
+        long elapsedNanos = System.nanoTime() - start;
+        manager.shutdown();
+
+        double throughput = completed / (elapsedNanos / (double) TimeUnit.SECONDS.toNanos(1));
+        System.out.printf("%-10s %10d %14.0f %14d %16d%n",
+                engine, completed, throughput, peakInFlight, threads.getPeakThreadCount());
+    }
+}
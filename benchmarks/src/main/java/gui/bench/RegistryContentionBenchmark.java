@@ -0,0 +1,145 @@
+package gui.bench;
+
+import gui.model.Config;
+import gui.model.Id;
+import gui.model.Server;
+import gui.model.ServerRegistry;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Measures server lookups and full-list reads from many probe threads while a single writer thread,
+ * standing in for the EDT, keeps replacing servers and reading the full list after every change as a save would.
+ * Compares a lock-guarded HashMap that copies on every full read with {@link ServerRegistry}.
+ *
+ * Usage: RegistryContentionBenchmark [servers] [probeThreads] [durationSeconds]
+ */
+public class RegistryContentionBenchmark {
+
+    private interface Store {
+        void put(Server server);
+
+        void remove(Id id);
+
+        Server get(Id id);
+
+        List<Server> all();
+    }
+
+    private static class LockedHashMapStore implements Store {
+        private final Map<Id, Server> servers = new HashMap<>();
+
+        public synchronized void put(Server server) {
+            servers.put(server.getId(), server);
+        }
+
+        public synchronized void remove(Id id) {
+            servers.remove(id);
+        }
+
+        public synchronized Server get(Id id) {
+            return servers.get(id);
+        }
+
+        public synchronized List<Server> all() {
+            return new ArrayList<>(servers.values());
+        }
+    }
+
+    private static class RegistryStore implements Store {
+        private final ServerRegistry registry = new ServerRegistry();
+
+        public void put(Server server) {
+            registry.put(server);
+        }
+
+        public void remove(Id id) {
+            registry.remove(id);
+        }
+
+        public Server get(Id id) {
+            return registry.get(id);
+        }
+
+        public List<Server> all() {
+            return registry.snapshot();
+        }
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        int serverCount = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int probeThreads = args.length > 1 ? Integer.parseInt(args[1]) : 16;
+        int durationSeconds = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+
+        System.out.printf("%d servers, %d probe threads, 1 writer, %d s per run%n",
+                serverCount, probeThreads, durationSeconds);
+        System.out.printf("%-10s %16s %16s %16s%n", "store", "lookups/sec", "list reads/sec", "writes/sec");
+        run("locked", new LockedHashMapStore(), serverCount, probeThreads, durationSeconds);
+        run("registry", new RegistryStore(), serverCount, probeThreads, durationSeconds);
+    }
+
+    private static void run(String name, Store store, int serverCount, int probeThreads, int durationSeconds)
+            throws InterruptedException {
+        Id[] ids = new Id[serverCount];
+        for (int i = 0; i < serverCount; i++) {
+            ids[i] = new Id("bench-" + i);
+            store.put(newServer(ids[i]));
+        }
+
+        LongAdder lookups = new LongAdder();
+        LongAdder listReads = new LongAdder();
+        LongAdder writes = new LongAdder();
+        long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(durationSeconds);
+
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < probeThreads; t++) {
+            threads.add(new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                long sink = 0;
+                while (System.nanoTime() < end) {
+                    // Probe completions look up their server; every 1000th pass reads the whole fleet
+                    for (int i = 0; i < 1000; i++) {
+                        Server server = store.get(ids[random.nextInt(serverCount)]);
+                        sink += server != null ? 1 : 0;
+                    }
+                    lookups.add(1000);
+                    sink += store.all().size();
+                    listReads.increment();
+                }
+                if (sink == 42) {
+                    System.out.print("");
+                }
+            }, "probe-" + t));
+        }
+        threads.add(new Thread(() -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            while (System.nanoTime() < end) {
+                Id id = ids[random.nextInt(serverCount)];
+                store.remove(id);
+                store.put(newServer(id));
+                store.all();
+                writes.increment();
+            }
+        }, "edt-writer"));
+
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        System.out.printf("%-10s %16.0f %16.0f %16.0f%n", name,
+                lookups.sum() / (double) durationSeconds,
+                listReads.sum() / (double) durationSeconds,
+                writes.sum() / (double) durationSeconds);
+    }
+
+    private static Server newServer(Id id) {
+        return new Server(id, new Config(id.getId(), "127.0.0.1", 8080));
+    }
+}
@@ -0,0 +1,138 @@
+package gui.bench;
+
+import gui.model.Config;
+import gui.model.Id;
+import gui.model.Server;
+import gui.model.ServerManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmarks for the {@link ServerManager} operations the UI and saves hit on every change:
+ * adding and removing a server in a populated fleet, reading the full server list with and without
+ * an intervening change, and fanning a status change out to property change listeners.
+ *
+ * Servers use TCP probes against a closed local port with a one hour interval, so the health check
+ * scheduler stays almost idle and does not skew the measurements.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ServerManagerBenchmark {
+    private static final int IDLE_INTERVAL_SECONDS = 3600;
+
+    static Server newServer(String id, int index) {
+        Config config = new Config("Bench " + index, "127.0.0.1", 1, IDLE_INTERVAL_SECONDS);
+        config.setProbeType(Config.ProbeType.TCP);
+        return new Server(new Id(id), config);
+    }
+
+    @State(Scope.Benchmark)
+    public static class Fleet {
+        @Param({"1000", "10000", "100000"})
+        public int servers;
+
+        public ServerManager serverManager;
+        public Server extra;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            serverManager = new ServerManager();
+            serverManager.startBatchOperation();
+            for (int i = 0; i < servers; i++) {
+                serverManager.addServer(newServer("bench-" + i, i));
+            }
+            serverManager.endBatchOperation(false);
+            extra = newServer("bench-extra", servers);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            serverManager.shutdown();
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Listeners {
+        @Param({"1", "10", "100"})
+        public int listeners;
+
+        public ServerManager serverManager;
+        public Server server;
+        private boolean online;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            serverManager = new ServerManager();
+            server = newServer("bench-status", 0);
+            serverManager.addServer(server);
+            for (int i = 0; i < listeners; i++) {
+                serverManager.addPropertyChangeListener(ServerManager.PROP_SERVER_STATUS_CHANGED, evt -> {
+                });
+            }
+        }
+
+        Server.Status nextStatus() {
+            online = !online;
+            return online ? Server.Status.ONLINE : Server.Status.OFFLINE;
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            serverManager.shutdown();
+        }
+    }
+
+    /**
+     * Adds a server to the fleet and removes it again, which keeps the fleet size constant.
+     */
+    @Benchmark
+    public void addThenRemove(Fleet fleet) {
+        fleet.serverManager.addServer(fleet.extra);
+        fleet.serverManager.removeServer(fleet.extra.getId());
+    }
+
+    /**
+     * Reads the server list when nothing changed since the last read, as repeated UI refreshes do.
+     */
+    @Benchmark
+    public List<Server> getAllServers(Fleet fleet) {
+        return fleet.serverManager.getAllServers();
+    }
+
+    /**
+     * Reads the server list after every change, as a save after each edit does.
+     */
+    @Benchmark
+    public List<Server> getAllServersAfterChange(Fleet fleet) {
+        fleet.serverManager.addServer(fleet.extra);
+        List<Server> servers = fleet.serverManager.getAllServers();
+        fleet.serverManager.removeServer(fleet.extra.getId());
+        return servers;
+    }
+
+    /**
+     * Flips a server's status, which fires a change through the server to every manager listener.
+     */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public void statusChangeFanOut(Listeners state) {
+        state.server.setStatus(state.nextStatus());
+    }
+}
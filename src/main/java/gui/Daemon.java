@@ -0,0 +1,131 @@
+package gui;
+
+import gui.model.*;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Headless entry point that runs the health checks without loading Swing.
+ * Loads the server configurations, checks them with the same model classes as {@link Main} and
+ * logs every status transition to standard output until the process is stopped.
+ *
+ * Usage: java -cp swing-template.jar gui.Daemon [config.yaml]
+ */
+public class Daemon {
+    private static final String DEFAULT_CONFIG_FILE_PATH = "config.yaml";
+    // Locked while open, so of a GUI and daemon started in the same directory only the first keeps probe history
+    private static final String PROBE_HISTORY_PATH = "probe-history";
+    // Set e.g. -Dmetrics.port=9400 to expose /metrics for Prometheus
+    private static final String METRICS_PORT_PROPERTY = "metrics.port";
+
+    private final ServerManager serverManager;
+    private final ConfigFileManager configFileManager;
+    private ProbeHistoryStore probeHistoryStore;
+    private MetricsServer metricsServer;
+    private ConfigReloader configReloader;
+
+    public Daemon() {
+        configFileManager = new ConfigFileManager();
+        configFileManager.setBinarySnapshotEnabled(true);
+        // The GUI saves the configuration and its snapshot; the daemon only reads them
+        configFileManager.setBinarySnapshotReadOnly(true);
+        serverManager = new ServerManager();
+
+        // Status events carry no previous value at the manager level, so listen on each server instead
+        serverManager.addPropertyChangeListener(ServerManager.PROP_SERVER_ADDED, evt -> {
+            Server server = (Server) evt.getNewValue();
+            server.addPropertyChangeListener(Server.PROP_STATUS, statusEvt ->
+                    logTransition(server, (Server.Status) statusEvt.getOldValue(), (Server.Status) statusEvt.getNewValue()));
+        });
+    }
+
+    private void logTransition(Server server, Server.Status oldStatus, Server.Status newStatus) {
+        System.out.printf("%s %s [%s] %s:%d %s -> %s%n", Instant.now(), server.getConfig().getName(),
+                server.getId(), server.getConfig().getHost(), server.getConfig().getPort(), oldStatus, newStatus);
+    }
+
+    public void start(String configFilePath) {
+        try {
+            probeHistoryStore = new ProbeHistoryStore(Paths.get(PROBE_HISTORY_PATH));
+            serverManager.setProbeHistoryStore(probeHistoryStore);
+        } catch (IOException e) {
+            System.err.println("Failed to open probe history: " + e.getMessage());
+        }
+
+        Integer metricsPort = Integer.getInteger(METRICS_PORT_PROPERTY);
+        if (metricsPort != null) {
+            try {
+                metricsServer = new MetricsServer(serverManager, configFileManager, metricsPort);
+                metricsServer.start();
+            } catch (IOException e) {
+                System.err.println("Failed to start metrics endpoint: " + e.getMessage());
+            }
+        }
+
+        // Include changes the GUI journaled but has not compacted yet; the daemon itself never writes the file or its snapshot
+        List<Server> servers = new ConfigJournal(configFileManager, configFilePath, List::of).recover();
+        serverManager.startBatchOperation();
+        try {
+            for (Server server : servers) {
+                serverManager.addServer(server);
+            }
+        } finally {
+            serverManager.endBatchOperation(false);
+        }
+
+        // Nothing else changes the servers here, so reloads are applied straight from the watcher thread
+        configReloader = new ConfigReloader(configFileManager, serverManager, configFilePath, Runnable::run);
+        try {
+            configReloader.start();
+        } catch (IOException e) {
+            System.err.println("Failed to watch configuration for changes: " + e.getMessage());
+        }
+    }
+
+    public void shutdown() {
+        if (configReloader != null) {
+            configReloader.stop();
+        }
+        if (metricsServer != null) {
+            metricsServer.stop();
+        }
+        serverManager.shutdown();
+        if (probeHistoryStore != null) {
+            probeHistoryStore.close();
+        }
+    }
+
+    public ServerManager getServerManager() {
+        return serverManager;
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        // Nothing here needs a display; make sure nothing tries to open one
+        System.setProperty("java.awt.headless", "true");
+        // JVM-wide and only read before the first HTTP request, so set here rather than by the probe
+        HttpHealthProbe.allowHostHeader();
+        String configFilePath = args.length > 0 ? args[0] : DEFAULT_CONFIG_FILE_PATH;
+
+        Daemon daemon = new Daemon();
+        daemon.start(configFilePath);
+
+        long uptimeMillis = ManagementFactory.getRuntimeMXBean().getUptime();
+        Runtime runtime = Runtime.getRuntime();
+        long usedMegabytes = (runtime.totalMemory() - runtime.freeMemory()) / (1024 * 1024);
+        System.out.printf("Monitoring %d servers from %s, started in %d ms using %d MB of heap%n",
+                daemon.getServerManager().getServerCount(), configFilePath, uptimeMillis, usedMegabytes);
+
+        CountDownLatch stopped = new CountDownLatch(1);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            System.out.println("Shutting down");
+            daemon.shutdown();
+            stopped.countDown();
+        }, "daemon-shutdown"));
+        stopped.await();
+    }
+}
@@ -9,14 +9,29 @@ import javax.swing.*;
 import java.awt.*;
 import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
-import java.util.List;
+import java.io.IOException;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.nio.file.Paths;
 
 
 public class Main extends JFrame {
     // Model
     private ServerManager serverManager;
     private ConfigFileManager configFileManager;
-    private static final String CONFIG_FILE_PATH = "config.yaml";
+    private StatusEventBus statusEventBus;
+    private ConfigJournal configJournal;
+    private ConfigReloader configReloader;
+    private ProbeHistoryStore probeHistoryStore;
+    private MetricsServer metricsServer;
+    private boolean loadingConfigurations;
+    private StartupLoader startupLoader;
+    // Set e.g. -Dconfig.path=config.d to load a directory of config shards instead of config.yaml
+    private static final String CONFIG_FILE_PATH = System.getProperty("config.path", "config.yaml");
+    // Locked while open, so of a GUI and daemon started in the same directory only the first keeps probe history
+    private static final String PROBE_HISTORY_PATH = "probe-history";
+    // Set e.g. -Dmetrics.port=9400 to expose /metrics for Prometheus
+    private static final String METRICS_PORT_PROPERTY = "metrics.port";
     // Views
     private TopBarView topBarView;
     private SideBarView sideBarView;
@@ -39,7 +54,11 @@ public class Main extends JFrame {
 
         // Initialize model
         configFileManager = new ConfigFileManager();
+        configFileManager.setBinarySnapshotEnabled(true);
         serverManager = new ServerManager();
+        configJournal = new ConfigJournal(configFileManager, CONFIG_FILE_PATH, serverManager::getAllServers);
+        openProbeHistory();
+        startMetricsServer();
 
         // Setup server change listener to save changes to config file
         setupServerChangeListener();
@@ -51,11 +70,12 @@ public class Main extends JFrame {
         bottomBarView = new BottomBarView();
         contextMenuView = new ContextMenuView();
 
-        // Initialize controllers
-        topBarController = new TopBarController(topBarView, serverManager);
-        sideBarController = new SideBarController(sideBarView, serverManager);
-        contentController = new ContentController(contentView, serverManager);
-        bottomBarController = new BottomBarController(bottomBarView, serverManager);
+        // Initialize controllers; model events reach them on the EDT through the event bus
+        statusEventBus = new StatusEventBus(serverManager);
+        topBarController = new TopBarController(topBarView, serverManager, statusEventBus);
+        sideBarController = new SideBarController(sideBarView, serverManager, statusEventBus);
+        contentController = new ContentController(contentView, serverManager, statusEventBus);
+        bottomBarController = new BottomBarController(bottomBarView, serverManager, statusEventBus);
         contextMenuController = new ContextMenuController(contextMenuView, serverManager);
 
         // Attach to sidebar and content view
@@ -72,9 +92,6 @@ public class Main extends JFrame {
         add(splitPane, BorderLayout.CENTER);
         add(bottomBarView, BorderLayout.SOUTH);
 
-        // Load servers from configuration file or add sample data if file doesn't exist
-        loadConfigurationsFromFile();
-
         // Add window listener to clean up resources
         addWindowListener(new WindowAdapter() {
             @Override
@@ -84,53 +101,116 @@ public class Main extends JFrame {
         });
     }
 
+    private void openProbeHistory() {
+        // Probe results are still shown without it, they just do not survive a restart
+        try {
+            probeHistoryStore = new ProbeHistoryStore(Paths.get(PROBE_HISTORY_PATH));
+            serverManager.setProbeHistoryStore(probeHistoryStore);
+        } catch (IOException e) {
+            System.err.println("Failed to open probe history: " + e.getMessage());
+        }
+    }
+
+    private void startMetricsServer() {
+        Integer port = Integer.getInteger(METRICS_PORT_PROPERTY);
+        if (port == null) {
+            return;
+        }
+        try {
+            metricsServer = new MetricsServer(serverManager, configFileManager, port);
+            metricsServer.start();
+        } catch (IOException e) {
+            System.err.println("Failed to start metrics endpoint: " + e.getMessage());
+        }
+    }
+
     private void setupServerChangeListener() {
-        // Listen for individual server changes when not in a batch operation
+        // Every change is journaled, batched or not; the journal compacts into config.yaml in the background
         serverManager.addPropertyChangeListener(ServerManager.PROP_SERVER_ADDED, evt -> {
-            if (!serverManager.isBatchOperation()) {
-                    saveConfigurationsToFile();
-                }
+            if (!isLoadingConfigurations()) {
+                configJournal.recordAdded((Server) evt.getNewValue());
+            }
         });
         serverManager.addPropertyChangeListener(ServerManager.PROP_SERVER_REMOVED, evt -> {
-            if (!serverManager.isBatchOperation()) {
-                saveConfigurationsToFile();
+            if (!isLoadingConfigurations()) {
+                configJournal.recordRemoved((Server) evt.getOldValue());
             }
         });
-
-        // Listen for the end of batch operations
-        serverManager.addPropertyChangeListener("batchOperationEnd", evt -> {
-            saveConfigurationsToFile();
+        serverManager.addPropertyChangeListener(ServerManager.PROP_SERVER_UPDATED, evt -> {
+            if (!isLoadingConfigurations()) {
+                configJournal.recordUpdated((Server) evt.getNewValue());
+            }
         });
     }
 
     private void saveConfigurationsToFile() {
-        // Save configurations to file
-        try {
-            configFileManager.saveConfigurations(serverManager.getAllServers(), CONFIG_FILE_PATH);
-        } catch (Exception e) {
-            System.err.println("Failed to save configurations: " + e.getMessage());
-            e.printStackTrace();
-        }
+        // Writes a full snapshot in the background
+        configJournal.compact();
+    }
+
+    private boolean isLoadingConfigurations() {
+        return loadingConfigurations || (startupLoader != null && startupLoader.isAddingServers());
     }
 
+    /**
+     * Loads the servers in the background once the window is showing, so startup time does not grow with the fleet.
+     */
     private void loadConfigurationsFromFile() {
-        List<Server> servers = configFileManager.loadConfigurations(CONFIG_FILE_PATH);
+        // Snapshot plus any changes journaled since it was written. Until all of it is added, a snapshot of the
+        // servers would lose the rest, so changes made meanwhile are only journaled
+        configJournal.pauseCompactions();
+        startupLoader = new StartupLoader(serverManager, configJournal::recover, bottomBarView);
+        startupLoader.addPropertyChangeListener(evt -> {
+            if ("state".equals(evt.getPropertyName()) && evt.getNewValue() == SwingWorker.StateValue.DONE) {
+                finishLoading();
+            }
+        });
+        startupLoader.execute();
+    }
 
-        // Start batch operation
-        serverManager.startBatchOperation();
+    private void finishLoading() {
         try {
-            if (servers.isEmpty()) {
+            startupLoader.get();
+        } catch (InterruptedException | ExecutionException | CancellationException e) {
+            // Reported by the loader. Only part of the configuration may have been added, so for the rest of the
+            // session nothing may write over it: the journal is closed rather than left to grow without ever
+            // compacting, and the reloader is deliberately not started, as it would save the file it reloads
+            configJournal.close();
+            bottomBarView.updateStatus("Failed to load servers; changes will not be saved");
+            return;
+        }
+        configJournal.resumeCompactions();
+        if (serverManager.getServerCount() == 0) {
+            // Add sample data if the file doesn't exist
+            loadingConfigurations = true;
+            serverManager.startBatchOperation();
+            try {
                 addSampleServers();
+            } finally {
+                serverManager.endBatchOperation(false);
+                loadingConfigurations = false;
+            }
+            saveConfigurationsToFile();
+        } else if (configFileManager.needsMigration(CONFIG_FILE_PATH)) {
+            // Persists the ids the servers were just given, so they survive reordering from now on
+            saveConfigurationsToFile();
+        }
+        startConfigReloader();
+    }
+
+    private void startConfigReloader() {
+        // Picks up edits made to the configuration while running; applied on the EDT like any other change
+        configReloader = new ConfigReloader(configFileManager, serverManager, CONFIG_FILE_PATH, SwingUtilities::invokeLater);
+        configReloader.addPropertyChangeListener(ConfigReloader.PROP_RELOADED, evt -> {
+            // The edited file has no journal header, so write a snapshot the journal can follow on from
+            if (!((ConfigReloader.Result) evt.getNewValue()).isEmpty()) {
                 saveConfigurationsToFile();
-            } else {
-                // Add loaded servers to the server manager
-                for (Server server : servers) {
-                    serverManager.addServer(server);
-                }
             }
-        } finally {
-            // Always end batch operation, but with a flag to prevent auto-save
-            serverManager.endBatchOperation(false);
+        });
+        try {
+            configReloader.start();
+        } catch (IOException e) {
+            System.err.println("Failed to watch configuration for changes: " + e.getMessage());
         }
     }
 
@@ -142,6 +222,7 @@ public class Main extends JFrame {
 
         Id id2 = new Id("db-001");
         Config config2 = new Config("Database Server", "192.168.1.101", 5432);
+        config2.setProbeType(Config.ProbeType.TCP); // Not an HTTP service
         Server server2 = new Server(id2, config2);
 
         Id id3 = new Id("app-001");
@@ -155,11 +236,27 @@ public class Main extends JFrame {
 
     private void cleanupAndExit() {
         // Just perform the existing cleanup
+        if (startupLoader != null) {
+            startupLoader.cancel(true);
+        }
         bottomBarView.cleanup();
+        statusEventBus.cleanup();
+        if (configReloader != null) {
+            configReloader.stop();
+        }
+        if (metricsServer != null) {
+            metricsServer.stop();
+        }
         serverManager.shutdown();
+        configJournal.close();
+        if (probeHistoryStore != null) {
+            probeHistoryStore.close();
+        }
     }
 
     public static void main(String[] args) {
+        // JVM-wide and only read before the first HTTP request, so set here rather than by the probe
+        HttpHealthProbe.allowHostHeader();
         SwingUtilities.invokeLater(() -> {
             try {
                 // Set the look and feel to the system look and feel
@@ -171,6 +268,8 @@ public class Main extends JFrame {
 
             Main app = new Main();
             app.setVisible(true);
+            // Only now, so the empty window paints first and fills as the servers load
+            app.loadConfigurationsFromFile();
         });
     }
 }
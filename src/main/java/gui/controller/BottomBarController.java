@@ -11,12 +11,12 @@ public class BottomBarController implements PropertyChangeListener {
     private BottomBarView view;
     private ServerManager model;
 
-    public BottomBarController(BottomBarView view, ServerManager model) {
+    public BottomBarController(BottomBarView view, ServerManager model, StatusEventBus eventBus) {
         this.view = view;
         this.model = model;
 
-        // Register for model events
-        model.addPropertyChangeListener(this);
+        // Register for model events, delivered on the EDT
+        eventBus.addPropertyChangeListener(this);
     }
 
     @Override
@@ -34,21 +34,36 @@ public class BottomBarController implements PropertyChangeListener {
                 break;
 
             case ServerManager.PROP_SERVER_ADDED:
+                if (model.isBatchOperation()) {
+                    // Loading and reloading add servers in bulk and report progress themselves
+                    break;
+                }
                 Server addedServer = (Server) evt.getNewValue();
                 view.updateStatus("Server added: " + addedServer.getConfig().getName());
                 break;
 
             case ServerManager.PROP_SERVER_REMOVED:
+                if (model.isBatchOperation()) {
+                    break;
+                }
                 Server removedServer = (Server) evt.getOldValue();
                 view.updateStatus("Server removed: " + removedServer.getConfig().getName());
                 break;
 
-            case ServerManager.PROP_SERVER_STATUS_CHANGED:
-                Server changedServer = (Server) evt.getNewValue();
+            case ServerManager.PROP_SERVER_UPDATED:
+                if (model.isBatchOperation()) {
+                    break;
+                }
+                Server updatedServer = (Server) evt.getNewValue();
+                view.updateStatus("Server updated: " + updatedServer.getConfig().getName());
+                break;
+
+            case StatusEventBus.PROP_SERVER_STATUS_BATCH:
+                StatusEventBus.StatusBatch batch = (StatusEventBus.StatusBatch) evt.getNewValue();
                 Server selectedServer = model.getSelectedServer();
-                if (selectedServer != null && selectedServer.equals(changedServer)) {
-                    view.updateStatus("Server " + changedServer.getConfig().getName() +
-                                     " is now " + changedServer.getStatus());
+                if (selectedServer != null && batch.contains(selectedServer)) {
+                    view.updateStatus("Server " + selectedServer.getConfig().getName() +
+                                     " is now " + selectedServer.getStatus());
                 }
                 break;
         }
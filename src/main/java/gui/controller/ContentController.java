@@ -13,12 +13,12 @@ public class ContentController implements PropertyChangeListener {
     private ContentView view;
     private ServerManager model;
 
-    public ContentController(ContentView view, ServerManager model) {
+    public ContentController(ContentView view, ServerManager model, StatusEventBus eventBus) {
         this.view = view;
         this.model = model;
 
-        // Register for model events
-        model.addPropertyChangeListener(this);
+        // Register for model events, delivered on the EDT
+        eventBus.addPropertyChangeListener(this);
     }
 
     private void updateViewWithServer(Server server) {
@@ -40,10 +40,16 @@ public class ContentController implements PropertyChangeListener {
                 updateViewWithServer(server);
                 break;
 
-            case ServerManager.PROP_SERVER_STATUS_CHANGED:
-                Server changedServer = (Server) evt.getNewValue();
+            case ServerManager.PROP_SERVER_UPDATED:
+                if (evt.getNewValue().equals(model.getSelectedServer())) {
+                    updateViewWithServer((Server) evt.getNewValue());
+                }
+                break;
+
+            case StatusEventBus.PROP_SERVER_STATUS_BATCH:
+                StatusEventBus.StatusBatch batch = (StatusEventBus.StatusBatch) evt.getNewValue();
                 Server selectedServer = model.getSelectedServer();
-                if (selectedServer != null && selectedServer.equals(changedServer)) {
+                if (selectedServer != null && batch.contains(selectedServer)) {
                     updateViewWithServer(selectedServer);
                 }
                 break;
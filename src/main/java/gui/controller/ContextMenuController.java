@@ -11,7 +11,6 @@ import gui.view.SideBarView;
 import gui.view.ContentView;
 
 import javax.swing.*;
-import javax.swing.tree.DefaultMutableTreeNode;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 import java.util.UUID;
@@ -83,6 +82,14 @@ public class ContextMenuController {
 
         // Delete Server action
         contextMenuView.getDeleteServerItem().addActionListener(e -> deleteSelectedServer());
+
+        // Check Now action
+        contextMenuView.getCheckNowItem().addActionListener(e -> {
+            Server server = getSelectedServer();
+            if (server != null) {
+                serverManager.checkServerNow(server.getId());
+            }
+        });
     }
 
     private void showServerDialog(boolean isEditMode) {
@@ -98,7 +105,8 @@ public class ContextMenuController {
             dialogView.setServerData(
                     serverToEdit.getConfig().getName(),
                     serverToEdit.getConfig().getHost(),
-                    serverToEdit.getConfig().getPort()
+                    serverToEdit.getConfig().getPort(),
+                    serverToEdit.getConfig().getProbeType()
             );
         }
 
@@ -123,20 +131,15 @@ public class ContextMenuController {
                     // Add new server
                     Id id = new Id(UUID.randomUUID().toString());
                     Config config = new Config(name, host, port);
+                    config.setProbeType(dialogView.getSelectedProbeType());
                     Server server = new Server(id, config);
                     serverManager.addServer(server);
                 } else {
-                    // Edit existing server
-                    serverManager.startBatchOperation();
-                    try {
-                        Config newConfig = new Config(name, host, port);
-                        Id serverId = finalServerToEdit.getId();
-                        serverManager.removeServer(serverId);
-                        Server updatedServer = new Server(serverId, newConfig);
-                        serverManager.addServer(updatedServer);
-                    } finally {
-                        serverManager.endBatchOperation();
-                    }
+                    // Edit existing server in place, keeping its status and history
+                    Config newConfig = new Config(name, host, port,
+                            finalServerToEdit.getConfig().getCheckIntervalSeconds());
+                    newConfig.setProbeType(dialogView.getSelectedProbeType());
+                    serverManager.updateServer(finalServerToEdit.getId(), newConfig);
                 }
                 dialogView.dispose();
             } catch (NumberFormatException ex) {
@@ -175,10 +178,7 @@ public class ContextMenuController {
     private Server getSelectedServer() {
         // If triggered from the sidebar
         if (contextMenuView.getInvoker() == sideBarView) {
-            DefaultMutableTreeNode node = (DefaultMutableTreeNode) sideBarView.getLastSelectedPathComponent();
-            if (node != null && !node.isRoot() && node.getUserObject() instanceof Server) {
-                return (Server) node.getUserObject();
-            }
+            return sideBarView.getSelectedServer();
         }
         // If triggered from the content view
         else if (contextMenuView.getInvoker() == contentView) {
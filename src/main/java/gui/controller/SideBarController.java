@@ -6,7 +6,6 @@ import gui.view.SideBarView;
 
 import javax.swing.event.TreeSelectionEvent;
 import javax.swing.event.TreeSelectionListener;
-import javax.swing.tree.DefaultMutableTreeNode;
 
 import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
@@ -15,28 +14,25 @@ public class SideBarController implements PropertyChangeListener {
     private SideBarView view;
     private ServerManager model;
 
-    public SideBarController(SideBarView view, ServerManager model) {
+    public SideBarController(SideBarView view, ServerManager model, StatusEventBus eventBus) {
         this.view = view;
         this.model = model;
 
         // Initialize view with existing servers
         for (Server server : model.getAllServers()) {
-            view.addServerNode(server.getId().getId(), server.getConfig().getName(), server);
+            view.addServerNode(server);
         }
 
-        // Register for model events
-        model.addPropertyChangeListener(this);
+        // Register for model events, delivered on the EDT
+        eventBus.addPropertyChangeListener(this);
 
         // Add tree selection listener
         view.addTreeSelectionListener(new TreeSelectionListener() {
             @Override
             public void valueChanged(TreeSelectionEvent e) {
-                DefaultMutableTreeNode node = (DefaultMutableTreeNode) view.getLastSelectedPathComponent();
-                if (node == null || node.isRoot()) return;
-
-                Object userObject = node.getUserObject();
-                if (userObject instanceof Server) {
-                    model.setSelectedServer((Server) userObject);
+                Server server = view.getSelectedServer();
+                if (server != null) {
+                    model.setSelectedServer(server);
                 }
             }
         });
@@ -49,21 +45,23 @@ public class SideBarController implements PropertyChangeListener {
         switch (propertyName) {
             case ServerManager.PROP_SERVER_ADDED:
                 Server addedServer = (Server) evt.getNewValue();
-                view.addServerNode(
-                        addedServer.getId().getId(),
-                        addedServer.getConfig().getName(),
-                        addedServer
-                );
+                view.addServerNode(addedServer);
                 break;
 
             case ServerManager.PROP_SERVER_REMOVED:
                 Server removedServer = (Server) evt.getOldValue();
-                view.removeServerNode(removedServer.getId().getId());
+                view.removeServerNode(removedServer.getId());
+                break;
+
+            case ServerManager.PROP_SERVER_UPDATED:
+                view.updateServerNode((Server) evt.getNewValue());
                 break;
 
-            case ServerManager.PROP_SERVER_STATUS_CHANGED:
-                Server changedServer = (Server) evt.getNewValue();
-                view.updateServerNode(changedServer.getId().getId(), changedServer);
+            case StatusEventBus.PROP_SERVER_STATUS_BATCH:
+                StatusEventBus.StatusBatch batch = (StatusEventBus.StatusBatch) evt.getNewValue();
+                for (Server changedServer : batch.servers()) {
+                    view.updateServerNode(changedServer);
+                }
                 break;
         }
     }
@@ -0,0 +1,102 @@
+package gui.controller;
+
+import gui.model.Server;
+import gui.model.ServerManager;
+import gui.view.BottomBarView;
+
+import javax.swing.*;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Loads the servers after the window is already showing. The configuration is read on a background
+ * thread, then the servers are handed to the {@link ServerManager} on the EDT in chunks, one chunk per
+ * event-loop turn, so the sidebar fills progressively and the UI keeps responding while it does.
+ * Progress is shown in the {@link BottomBarView}.
+ *
+ * Listen for the "state" property reaching {@link SwingWorker.StateValue#DONE} to act once everything is loaded.
+ */
+public class StartupLoader extends SwingWorker<List<Server>, Void> {
+    public static final int DEFAULT_CHUNK_SIZE = 500;
+
+    private final ServerManager model;
+    private final Callable<List<Server>> source;
+    private final BottomBarView bottomBarView;
+    private final int chunkSize;
+    // Lets the loader publish a chunk only once the previous one is in, so the EDT never gets a backlog
+    private final Semaphore chunkAdded = new Semaphore(0);
+    private volatile int total;
+    private int added;
+    private boolean addingServers;
+
+    /**
+     * @param source Reads the servers to load; called on the background thread
+     */
+    public StartupLoader(ServerManager model, Callable<List<Server>> source, BottomBarView bottomBarView) {
+        this(model, source, bottomBarView, DEFAULT_CHUNK_SIZE);
+    }
+
+    public StartupLoader(ServerManager model, Callable<List<Server>> source, BottomBarView bottomBarView, int chunkSize) {
+        this.model = model;
+        this.source = source;
+        this.bottomBarView = bottomBarView;
+        this.chunkSize = chunkSize;
+        bottomBarView.showProgress("Loading configuration...", 0, 0);
+    }
+
+    @Override
+    protected List<Server> doInBackground() throws Exception {
+        List<Server> servers = source.call();
+        int count = servers.size();
+        total = count;
+        for (int start = 0; start < count && !isCancelled(); start += chunkSize) {
+            // Straight onto the event queue; publish() would hold each chunk back for SwingWorker's ~30 ms coalescing
+            List<Server> chunk = servers.subList(start, Math.min(count, start + chunkSize));
+            SwingUtilities.invokeLater(() -> addChunk(chunk));
+            chunkAdded.acquire();
+        }
+        return servers;
+    }
+
+    private void addChunk(List<Server> chunk) {
+        if (!isCancelled()) {
+            addingServers = true;
+            model.startBatchOperation();
+            try {
+                for (Server server : chunk) {
+                    model.addServer(server);
+                }
+                added += chunk.size();
+            } finally {
+                model.endBatchOperation(false);
+                addingServers = false;
+            }
+            bottomBarView.showProgress("Loading servers: " + added + " of " + total, added, total);
+        }
+        chunkAdded.release();
+    }
+
+    @Override
+    protected void done() {
+        bottomBarView.hideProgress();
+        if (isCancelled()) {
+            return;
+        }
+        try {
+            get();
+            bottomBarView.updateStatus("Loaded " + added + " servers");
+        } catch (Exception e) {
+            bottomBarView.updateStatus("Failed to load servers");
+            System.err.println("Failed to load servers: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Returns whether servers being added right now come from the configuration, as opposed to the user.
+     * Only meaningful on the EDT.
+     */
+    public boolean isAddingServers() {
+        return addingServers;
+    }
+}
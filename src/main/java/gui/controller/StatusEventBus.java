@@ -0,0 +1,115 @@
+package gui.controller;
+
+import gui.model.Id;
+import gui.model.Server;
+import gui.model.ServerManager;
+
+import javax.swing.*;
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.beans.PropertyChangeSupport;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Relays ServerManager events to the controllers on the EDT.
+ * Status changes arrive on probe threads and are coalesced per server; once per frame the pending
+ * servers are delivered as a single {@link #PROP_SERVER_STATUS_BATCH} event whose new value is a
+ * {@link StatusBatch} of the changed servers. All other events are forwarded as they are, moved onto the EDT if needed.
+ */
+public class StatusEventBus implements PropertyChangeListener {
+    public static final String PROP_SERVER_STATUS_BATCH = "serverStatusBatch";
+    public static final int DEFAULT_FRAME_INTERVAL_MILLIS = 50;
+
+    private final ServerManager model;
+    private final PropertyChangeSupport pcs;
+    private final Map<Id, Server> pendingStatusChanges = new ConcurrentHashMap<>();
+    private final Timer frameTimer;
+
+    /**
+     * Servers whose status changed since the previous batch, passed as the new value of {@link #PROP_SERVER_STATUS_BATCH} events.
+     */
+    public record StatusBatch(List<Server> servers) {
+        public boolean contains(Server server) {
+            return servers.contains(server);
+        }
+    }
+
+    public StatusEventBus(ServerManager model) {
+        this(model, DEFAULT_FRAME_INTERVAL_MILLIS);
+    }
+
+    /**
+     * @param model Model whose events are relayed
+     * @param frameIntervalMillis How often pending status changes are delivered
+     */
+    public StatusEventBus(ServerManager model, int frameIntervalMillis) {
+        this.model = model;
+        this.pcs = new PropertyChangeSupport(this);
+
+        frameTimer = new Timer(frameIntervalMillis, e -> flush());
+        frameTimer.setCoalesce(true);
+        frameTimer.start();
+
+        model.addPropertyChangeListener(this);
+    }
+
+    @Override
+    public void propertyChange(PropertyChangeEvent evt) {
+        if (ServerManager.PROP_SERVER_STATUS_CHANGED.equals(evt.getPropertyName())) {
+            // Later changes for the same server replace earlier ones; the server carries its latest status
+            Server server = (Server) evt.getNewValue();
+            pendingStatusChanges.put(server.getId(), server);
+            return;
+        }
+
+        if (SwingUtilities.isEventDispatchThread()) {
+            pcs.firePropertyChange(evt);
+        } else {
+            SwingUtilities.invokeLater(() -> pcs.firePropertyChange(evt));
+        }
+    }
+
+    /**
+     * Delivers pending status changes immediately. Must be called on the EDT.
+     */
+    public void flush() {
+        if (pendingStatusChanges.isEmpty()) {
+            return;
+        }
+
+        List<Server> changed = new ArrayList<>(pendingStatusChanges.size());
+        for (Map.Entry<Id, Server> entry : pendingStatusChanges.entrySet()) {
+            if (pendingStatusChanges.remove(entry.getKey(), entry.getValue())) {
+                changed.add(entry.getValue());
+            }
+        }
+        pcs.firePropertyChange(PROP_SERVER_STATUS_BATCH, null, new StatusBatch(changed));
+    }
+
+    public void addPropertyChangeListener(PropertyChangeListener listener) {
+        pcs.addPropertyChangeListener(listener);
+    }
+
+    public void removePropertyChangeListener(PropertyChangeListener listener) {
+        pcs.removePropertyChangeListener(listener);
+    }
+
+    public void addPropertyChangeListener(String propertyName, PropertyChangeListener listener) {
+        pcs.addPropertyChangeListener(propertyName, listener);
+    }
+
+    public void removePropertyChangeListener(String propertyName, PropertyChangeListener listener) {
+        pcs.removePropertyChangeListener(propertyName, listener);
+    }
+
+    /**
+     * Stops delivering events and detaches from the model
+     */
+    public void cleanup() {
+        frameTimer.stop();
+        model.removePropertyChangeListener(this);
+    }
+}
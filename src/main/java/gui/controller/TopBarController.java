@@ -17,12 +17,12 @@ public class TopBarController implements PropertyChangeListener {
     private TopBarView view;
     private ServerManager model;
 
-    public TopBarController(TopBarView view, ServerManager model) {
+    public TopBarController(TopBarView view, ServerManager model, StatusEventBus eventBus) {
         this.view = view;
         this.model = model;
 
-        // Register for model events
-        model.addPropertyChangeListener(this);
+        // Register for model events, delivered on the EDT
+        eventBus.addPropertyChangeListener(this);
 
         // Add button listeners
         view.setAddButtonListener(new ActionListener() {
@@ -53,7 +53,7 @@ public class TopBarController implements PropertyChangeListener {
     }
 
     private void showAddServerDialog() {
-        JPanel panel = view.createAddServerPanel();
+        TopBarView.AddServerPanel panel = view.createAddServerPanel();
 
         int result = JOptionPane.showConfirmDialog(
             SwingUtilities.getWindowAncestor(view),
@@ -64,13 +64,9 @@ public class TopBarController implements PropertyChangeListener {
         );
 
         if (result == JOptionPane.OK_OPTION) {
-            JTextField nameField = (JTextField) panel.getComponent(1);
-            JTextField hostField = (JTextField) panel.getComponent(3);
-            JTextField portField = (JTextField) panel.getComponent(5);
-
-            String name = nameField.getText().trim();
-            String host = hostField.getText().trim();
-            String portText = portField.getText().trim();
+            String name = panel.getNameFieldText();
+            String host = panel.getHostFieldText();
+            String portText = panel.getPortFieldText();
 
             if (name.isEmpty() || host.isEmpty() || portText.isEmpty()) {
                 JOptionPane.showMessageDialog(
@@ -86,6 +82,7 @@ public class TopBarController implements PropertyChangeListener {
                 int port = Integer.parseInt(portText);
                 Id id = new Id(java.util.UUID.randomUUID().toString());
                 Config config = new Config(name, host, port);
+                config.setProbeType(panel.getSelectedProbeType());
                 Server server = new Server(id, config);
                 model.addServer(server);
             } catch (NumberFormatException e) {
@@ -113,12 +110,10 @@ public class TopBarController implements PropertyChangeListener {
                 }
                 view.setRemoveButtonEnabled(server != null);
                 break;
-            case ServerManager.PROP_SERVER_STATUS_CHANGED:
-                Server changedServer = (Server) evt.getNewValue();
-                Server selectedServer = model.getSelectedServer();
-                if (selectedServer != null && selectedServer.equals(changedServer)) {
-//                    view.updateStatus("Server " + changedServer.getConfig().getName() +
-//                                     " is now " + changedServer.getStatus());
+            case ServerManager.PROP_SERVER_UPDATED:
+                Server updatedServer = (Server) evt.getNewValue();
+                if (updatedServer.equals(model.getSelectedServer())) {
+                    view.updateTitle("Server: " + updatedServer.getConfig().getName());
                 }
                 break;
         }
@@ -0,0 +1,192 @@
+package gui.model;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * Compact binary copy of a YAML configuration file, which loads far faster than parsing the YAML.
+ * Layout, all numbers big-endian:
+ * <pre>
+ * header   int magic, short version, long yamlLength, long yamlModifiedMillis, int stringCount, int serverCount
+ * strings  stringCount times: int byteLength, UTF-8 bytes
+ * servers  serverCount times: short recordLength, then int nameIndex, int hostIndex, int port, int interval, byte probe,
+ *          int idIndex
+ * trailer  int CRC32 of everything before it
+ * </pre>
+ * Names, hosts and ids are indices into the string table, so a host shared by many servers is stored and
+ * decoded once. Readers skip record bytes they do not know, so fields can be appended to a record.
+ *
+ * The header records the size and modification time of the YAML file the snapshot was written with;
+ * the snapshot is only used while the YAML still matches, so hand edits to config.yaml always win.
+ */
+public final class BinaryConfigSnapshot {
+    private static final int MAGIC = 0x534d4353; // "SMCS"
+    private static final short VERSION = 2; // 2 added ids
+    private static final int HEADER_BYTES = 4 + 2 + 8 + 8 + 4 + 4;
+    private static final int RECORD_BYTES = 4 + 4 + 4 + 4 + 1 + 4;
+    private static final Config.ProbeType[] PROBE_TYPES = Config.ProbeType.values();
+
+    private BinaryConfigSnapshot() {
+    }
+
+    /**
+     * Returns the snapshot file kept next to a YAML configuration file.
+     */
+    public static Path pathFor(String yamlFilePath) {
+        return Paths.get(yamlFilePath + ".bin");
+    }
+
+    /**
+     * Writes a snapshot of servers that were just saved to the YAML file, replacing any older snapshot atomically.
+     */
+    public static void write(List<Server> servers, Path snapshotPath, Path yamlPath) throws IOException {
+        Map<String, Integer> stringIndex = new HashMap<>();
+        ByteBuffer strings = ByteBuffer.allocate(64 * 1024);
+        ByteBuffer records = ByteBuffer.allocate(servers.size() * (2 + RECORD_BYTES));
+        for (Server server : servers) {
+            Config config = server.getConfig();
+            records.putShort((short) RECORD_BYTES);
+            strings = putString(records, strings, stringIndex, config.getName());
+            strings = putString(records, strings, stringIndex, config.getHost());
+            records.putInt(config.getPort());
+            records.putInt(config.getCheckIntervalSeconds());
+            records.put((byte) config.getProbeType().ordinal());
+            strings = putString(records, strings, stringIndex, server.getId().getId());
+        }
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        header.putInt(MAGIC).putShort(VERSION)
+                .putLong(Files.size(yamlPath)).putLong(Files.getLastModifiedTime(yamlPath).toMillis())
+                .putInt(stringIndex.size()).putInt(servers.size());
+        header.flip();
+        strings.flip();
+        records.flip();
+
+        CRC32 crc = new CRC32();
+        crc.update(header.duplicate());
+        crc.update(strings.duplicate());
+        crc.update(records.duplicate());
+        ByteBuffer trailer = ByteBuffer.allocate(4).putInt((int) crc.getValue());
+        trailer.flip();
+
+        Path temporary = Paths.get(snapshotPath + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer[] buffers = {header, strings, records, trailer};
+            while (trailer.hasRemaining()) {
+                channel.write(buffers);
+            }
+            channel.force(true);
+        }
+        try {
+            Files.move(temporary, snapshotPath, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temporary, snapshotPath, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    // Writes the string's table index to the record, adding it to the table first if it is new
+    private static ByteBuffer putString(ByteBuffer records, ByteBuffer strings, Map<String, Integer> stringIndex, String value) {
+        Integer index = stringIndex.get(value);
+        if (index == null) {
+            index = stringIndex.size();
+            stringIndex.put(value, index);
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            strings = ensureCapacity(strings, 4 + bytes.length);
+            strings.putInt(bytes.length).put(bytes);
+        }
+        records.putInt(index);
+        return strings;
+    }
+
+    private static ByteBuffer ensureCapacity(ByteBuffer buffer, int needed) {
+        if (buffer.remaining() >= needed) {
+            return buffer;
+        }
+        ByteBuffer grown = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + needed));
+        buffer.flip();
+        return grown.put(buffer);
+    }
+
+    /**
+     * Loads the servers from a snapshot if it is intact and was written for the YAML file as it is now.
+     * @param consumer Receives each server in file order; nothing is passed on unless the whole snapshot is valid
+     * @return The number of servers loaded, or -1 if the snapshot is missing, stale or damaged
+     */
+    public static int read(Path snapshotPath, Path yamlPath, Consumer<Server> consumer) {
+        if (!Files.exists(snapshotPath) || !Files.exists(yamlPath)) {
+            return -1;
+        }
+        try (FileChannel channel = FileChannel.open(snapshotPath, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_BYTES + 4 || size > Integer.MAX_VALUE) {
+                return -1;
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (buffer.getInt() != MAGIC || buffer.getShort() != VERSION
+                    || buffer.getLong() != Files.size(yamlPath)
+                    || buffer.getLong() != Files.getLastModifiedTime(yamlPath).toMillis()) {
+                return -1;
+            }
+
+            CRC32 crc = new CRC32();
+            crc.update(buffer.duplicate().position(0).limit((int) size - 4));
+            if ((int) crc.getValue() != buffer.getInt((int) size - 4)) {
+                System.err.println("Ignoring damaged configuration snapshot " + snapshotPath);
+                return -1;
+            }
+
+            String[] strings = new String[buffer.getInt()];
+            int serverCount = buffer.getInt();
+            byte[] scratch = new byte[256];
+            for (int i = 0; i < strings.length; i++) {
+                int length = buffer.getInt();
+                if (length > scratch.length) {
+                    scratch = new byte[Math.max(length, scratch.length * 2)];
+                }
+                buffer.get(scratch, 0, length);
+                strings[i] = new String(scratch, 0, length, StandardCharsets.UTF_8);
+            }
+
+            // The checksum matched, so the only failures left are snapshots written by a newer version;
+            // decoded in full before any server is handed on, so a failure leaves the caller free to load the YAML
+            List<Server> servers = new ArrayList<>(Math.min(serverCount, buffer.remaining()));
+            for (int i = 0; i < serverCount; i++) {
+                int recordLength = buffer.getShort() & 0xffff;
+                int next = buffer.position() + recordLength;
+                String name = strings[buffer.getInt()];
+                String host = strings[buffer.getInt()];
+                int port = buffer.getInt();
+                int interval = buffer.getInt();
+                Config.ProbeType probeType = PROBE_TYPES[buffer.get()];
+                String id = strings[buffer.getInt()];
+                buffer.position(next);
+
+                Config config = new Config(name, host, port, interval);
+                config.setProbeType(probeType);
+                servers.add(new Server(new Id(id), config));
+            }
+            servers.forEach(consumer);
+            return serverCount;
+        } catch (IOException | BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException e) {
+            System.err.println("Failed to read configuration snapshot " + snapshotPath + ": " + e.getMessage());
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package gui.model;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-server circuit breaker for health checks.
+ * After a run of consecutive failed probes the breaker opens and probes are skipped for a backoff
+ * period that doubles on every further failure, up to a cap. When the backoff expires a single
+ * half-open probe is let through; success closes the breaker and restores the normal cadence.
+ */
+public class CircuitBreaker {
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    public static final int DEFAULT_FAILURE_THRESHOLD = 3;
+    public static final long DEFAULT_MAX_BACKOFF_MILLIS = TimeUnit.MINUTES.toMillis(5);
+
+    private final int failureThreshold;
+    private final long maxBackoffNanos;
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long backoffNanos;
+    private long retryAtNanos;
+
+    public CircuitBreaker() {
+        this(DEFAULT_FAILURE_THRESHOLD, DEFAULT_MAX_BACKOFF_MILLIS);
+    }
+
+    /**
+     * @param failureThreshold Consecutive failures before the breaker opens
+     * @param maxBackoffMillis Upper bound for the time between probes while open
+     */
+    public CircuitBreaker(int failureThreshold, long maxBackoffMillis) {
+        this.failureThreshold = failureThreshold;
+        this.maxBackoffNanos = TimeUnit.MILLISECONDS.toNanos(maxBackoffMillis);
+    }
+
+    /**
+     * Decides whether a probe may be sent now. Moves an expired open breaker to half-open.
+     * @param nowNanos Current System.nanoTime()
+     * @return true if the probe should be sent
+     */
+    public synchronized boolean tryAcquire(long nowNanos) {
+        switch (state) {
+            case CLOSED:
+                return true;
+            case OPEN:
+                if (nowNanos - retryAtNanos >= 0) {
+                    state = State.HALF_OPEN;
+                    return true;
+                }
+                return false;
+            default:
+                // The half-open probe is still outstanding
+                return false;
+        }
+    }
+
+    public synchronized void recordSuccess() {
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+        backoffNanos = 0;
+    }
+
+    /**
+     * Records a failed probe and opens the breaker when the threshold is reached.
+     * @param nowNanos Current System.nanoTime()
+     * @param intervalNanos The server's normal check interval, used as the initial backoff unit
+     */
+    public synchronized void recordFailure(long nowNanos, long intervalNanos) {
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+            backoffNanos = Math.min(backoffNanos == 0 ? intervalNanos * 2 : backoffNanos * 2, maxBackoffNanos);
+            retryAtNanos = nowNanos + backoffNanos;
+            state = State.OPEN;
+        }
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    public synchronized int getConsecutiveFailures() {
+        return consecutiveFailures;
+    }
+
+    /**
+     * Returns the milliseconds until the next probe is allowed while open, or 0 otherwise.
+     */
+    public synchronized long getRetryInMillis(long nowNanos) {
+        if (state != State.OPEN) {
+            return 0;
+        }
+        return Math.max(0, TimeUnit.NANOSECONDS.toMillis(retryAtNanos - nowNanos));
+    }
+}
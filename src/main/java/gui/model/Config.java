@@ -1,14 +1,30 @@
 package gui.model;
 
 public class Config {
+    /**
+     * How the server is checked: an HTTP GET or HEAD of /health, or a plain TCP connect to the port.
+     */
+    public enum ProbeType {
+        HTTP, HTTP_HEAD, TCP
+    }
+
+    public static final int DEFAULT_CHECK_INTERVAL_SECONDS = 10;
+
     private String name;
     private String host;
     private int port;
+    private int checkIntervalSeconds;
+    private ProbeType probeType = ProbeType.HTTP;
 
     public Config(String name, String host, int port) {
+        this(name, host, port, DEFAULT_CHECK_INTERVAL_SECONDS);
+    }
+
+    public Config(String name, String host, int port, int checkIntervalSeconds) {
         this.name = name;
         this.host = host;
         this.port = port;
+        this.checkIntervalSeconds = checkIntervalSeconds;
     }
 
     public String getName() {
@@ -34,4 +50,20 @@ public class Config {
     public void setPort(int port) {
         this.port = port;
     }
+
+    public int getCheckIntervalSeconds() {
+        return checkIntervalSeconds;
+    }
+
+    public void setCheckIntervalSeconds(int checkIntervalSeconds) {
+        this.checkIntervalSeconds = checkIntervalSeconds;
+    }
+
+    public ProbeType getProbeType() {
+        return probeType;
+    }
+
+    public void setProbeType(ProbeType probeType) {
+        this.probeType = probeType;
+    }
 }
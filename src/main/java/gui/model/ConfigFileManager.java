@@ -1,98 +1,672 @@
 package gui.model;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.exc.InputCoercionException;
+import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+import org.yaml.snakeyaml.LoaderOptions;
 import org.yaml.snakeyaml.Yaml;
 import org.yaml.snakeyaml.DumperOptions;
 
 import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+import java.util.zip.CRC32;
 
 public class ConfigFileManager {
+    /**
+     * Layout written by this version. Version 1 was a bare list of {@code - server: {name, host, port}} entries
+     * without ids, which were then assigned by position; version 2 wraps the list as
+     * {@code {version: 2, servers: [{id, server: {...}}]}} so that every server keeps its id across saves.
+     */
+    public static final int SCHEMA_VERSION = 2;
+    /**
+     * Shard that servers created since loading a directory of shards are saved to.
+     */
+    public static final String DEFAULT_SHARD = "default.yaml";
+    private static final String SHARD_HEADER_FILE = ".header";
+    // SnakeYAML's default 3 MB document limit would reject configurations of more than about 60k servers
+    private static final YAMLFactory YAML_FACTORY = YAMLFactory.builder()
+            .loaderOptions(unlimitedLoaderOptions())
+            .build();
+
+    private final LatencyHistogram saveLatency = new LatencyHistogram();
+    private volatile long lastSaveDurationNanos = -1;
+    private volatile boolean binarySnapshotEnabled;
+    private volatile boolean binarySnapshotReadOnly;
+    // Shard each server was loaded from or saved to, and the content each shard was last loaded or saved with
+    private final Map<Id, Path> shardAssignments = new ConcurrentHashMap<>();
+    private final Map<Path, Long> shardFingerprints = new ConcurrentHashMap<>();
+    // Modification time of each file as this manager last wrote it
+    private final Map<Path, FileTime> ownWrites = new ConcurrentHashMap<>();
+    // Files last loaded in an older layout, which the next save migrates
+    private final Set<Path> legacyFiles = ConcurrentHashMap.newKeySet();
+    // Files last loaded with entries that had no id and were given a new one, which the next save persists
+    private final Set<Path> filesWithNewIds = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Enables keeping a {@link BinaryConfigSnapshot} next to each saved file and loading from it while it is
+     * up to date, which makes startup with large configurations much faster. Off by default.
+     */
+    public void setBinarySnapshotEnabled(boolean binarySnapshotEnabled) {
+        this.binarySnapshotEnabled = binarySnapshotEnabled;
+    }
+
+    public boolean isBinarySnapshotEnabled() {
+        return binarySnapshotEnabled;
+    }
+
+    /**
+     * Makes loading use an up-to-date binary snapshot without ever writing one after parsing the YAML, for a
+     * process that only reads a configuration another process saves, so the two never write the snapshot at once.
+     */
+    public void setBinarySnapshotReadOnly(boolean binarySnapshotReadOnly) {
+        this.binarySnapshotReadOnly = binarySnapshotReadOnly;
+    }
+
+    /**
+     * Returns how long each save took, from serializing the servers to the file being on disk.
+     */
+    public LatencyHistogram getSaveLatency() {
+        return saveLatency;
+    }
+
+    /**
+     * Returns how long the most recent save took in nanoseconds, or -1 if nothing was saved yet.
+     */
+    public long getLastSaveDurationNanos() {
+        return lastSaveDurationNanos;
+    }
+
+    private static LoaderOptions unlimitedLoaderOptions() {
+        LoaderOptions options = new LoaderOptions();
+        options.setCodePointLimit(Integer.MAX_VALUE);
+        return options;
+    }
 
     public void saveConfigurations(List<Server> servers, String filePath) {
         try {
-            // Configure YAML options
-            DumperOptions options = new DumperOptions();
-            options.setDefaultFlowStyle(DumperOptions.FlowStyle.BLOCK);
-            options.setPrettyFlow(true);
-            Yaml yaml = new Yaml(options);
+            writeConfigurations(servers, filePath, null);
+        } catch (IOException e) {
+            System.err.println("Failed to save configurations: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
 
-            // Convert servers to serializable map
-            List<Map<String, Object>> serversData = new ArrayList<>();
-            for (Server server : servers) {
-                Map<String, Object> serverMap = new HashMap<>();
+    /**
+     * Saves server configurations, reporting failure to the caller instead of logging it.
+     * @param servers Servers to save
+     * @param filePath YAML file to write, or a directory of shards; only the shards whose servers changed are rewritten
+     * @param headerComment Comment written above the server list, or null for none; loading ignores it
+     */
+    public void writeConfigurations(List<Server> servers, String filePath, String headerComment) throws IOException {
+        long startNanos = System.nanoTime();
+        boolean sharded = Files.isDirectory(Paths.get(filePath));
+        String detail = "";
+        try {
+            if (sharded) {
+                detail = " (" + writeShards(servers, Paths.get(filePath), headerComment) + " shards rewritten)";
+            } else {
+                writeYaml(servers, Paths.get(filePath), headerComment);
+            }
+        } finally {
+            lastSaveDurationNanos = System.nanoTime() - startNanos;
+            saveLatency.recordNanos(lastSaveDurationNanos);
+        }
+        System.out.printf("Successfully saved %d server configurations to %s%s in %.1f ms%n",
+                servers.size(), filePath, detail, lastSaveDurationNanos / 1e6);
+        if (binarySnapshotEnabled && !binarySnapshotReadOnly && !sharded) {
+            writeBinarySnapshot(servers, filePath);
+        }
+    }
 
-                // Store Config
-                Map<String, Object> configMap = new HashMap<>();
-                configMap.put("name", server.getConfig().getName());
-                configMap.put("host", server.getConfig().getHost());
-                configMap.put("port", server.getConfig().getPort());
-                serverMap.put("server", configMap);
+    private void writeYaml(List<Server> servers, Path target, String headerComment) throws IOException {
+        // Configure YAML options
+        DumperOptions options = new DumperOptions();
+        options.setDefaultFlowStyle(DumperOptions.FlowStyle.BLOCK);
+        options.setPrettyFlow(true);
+        Yaml yaml = new Yaml(options);
 
-                serversData.add(serverMap);
+        // Convert servers to serializable map
+        List<Map<String, Object>> serversData = new ArrayList<>();
+        for (Server server : servers) {
+            Map<String, Object> serverMap = new LinkedHashMap<>();
+            serverMap.put("id", server.getId().getId());
+
+            // Store Config
+            Map<String, Object> configMap = new LinkedHashMap<>();
+            configMap.put("name", server.getConfig().getName());
+            configMap.put("host", server.getConfig().getHost());
+            configMap.put("port", server.getConfig().getPort());
+            if (server.getConfig().getCheckIntervalSeconds() != Config.DEFAULT_CHECK_INTERVAL_SECONDS) {
+                configMap.put("interval", server.getConfig().getCheckIntervalSeconds());
+            }
+            if (server.getConfig().getProbeType() != Config.ProbeType.HTTP) {
+                configMap.put("probe", server.getConfig().getProbeType().name().toLowerCase());
             }
+            serverMap.put("server", configMap);
 
-            // Create parent directories if they don't exist
-            File file = new File(filePath);
-            if (file.getParentFile() != null) {
-                file.getParentFile().mkdirs();
+            serversData.add(serverMap);
+        }
+        Map<String, Object> document = new LinkedHashMap<>();
+        document.put("version", SCHEMA_VERSION);
+        document.put("servers", serversData);
+
+        // Create parent directories if they don't exist
+        if (target.getParent() != null) {
+            Files.createDirectories(target.getParent());
+        }
+
+        // Write a temporary file and rename it over the old one, so a crash never leaves a truncated file
+        Path temporary = Paths.get(target + ".tmp");
+        try (FileOutputStream out = new FileOutputStream(temporary.toFile());
+             Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8))) {
+            if (headerComment != null) {
+                writer.write("# " + headerComment + "\n");
             }
+            yaml.dump(document, writer);
+            writer.flush();
+            out.getFD().sync();
+        }
+        replace(temporary, target);
+        ownWrites.put(target.toAbsolutePath(), Files.getLastModifiedTime(target));
+        legacyFiles.remove(target.toAbsolutePath());
+        filesWithNewIds.remove(target.toAbsolutePath());
+    }
+
+    /**
+     * Returns whether the configuration, or any of its shards, was last loaded from an older schema
+     * version, or with servers that had no id, and will be rewritten with every id by the next save.
+     */
+    public boolean needsMigration(String filePath) {
+        return containsFileOrShard(legacyFiles, filePath) || containsFileOrShard(filesWithNewIds, filePath);
+    }
+
+    /**
+     * Returns whether the configuration, or any of its shards, was last loaded from version 1, whose ids are
+     * assigned by position and so only say which entry a server is, not which server.
+     */
+    boolean hasPositionalIds(String filePath) {
+        return containsFileOrShard(legacyFiles, filePath);
+    }
 
-            // Write to YAML file
-            try (FileWriter writer = new FileWriter(filePath)) {
-                yaml.dump(serversData, writer);
-                System.out.println("Successfully saved " + servers.size() + " server configurations to " + filePath);
+    private static boolean containsFileOrShard(Set<Path> files, String filePath) {
+        Path path = Paths.get(filePath).toAbsolutePath();
+        for (Path file : files) {
+            if (file.equals(path) || path.equals(file.getParent())) {
+                return true;
             }
+        }
+        return false;
+    }
 
+    /**
+     * Returns whether a file is exactly as this manager last saved it, so a change notification for it can be ignored.
+     */
+    boolean isOwnWrite(Path path) {
+        FileTime written = ownWrites.get(path.toAbsolutePath());
+        try {
+            return written != null && Files.exists(path) && written.equals(Files.getLastModifiedTime(path));
         } catch (IOException e) {
-            System.err.println("Failed to save configurations: " + e.getMessage());
-            e.printStackTrace();
+            return false;
+        }
+    }
+
+    /**
+     * Makes a server that replaces another under a new id save to the same shard.
+     */
+    void inheritShard(Id from, Id to) {
+        Path shard = shardAssignments.get(from);
+        if (shard != null) {
+            shardAssignments.put(to, shard);
+        }
+    }
+
+    private static void replace(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
         }
     }
 
+    // Returns how many shards were rewritten
+    private int writeShards(List<Server> servers, Path directory, String headerComment) throws IOException {
+        directory = directory.toAbsolutePath();
+        Map<Path, List<Server>> byShard = new LinkedHashMap<>();
+        // Shards this manager loaded or wrote are rewritten even when they lost all their servers;
+        // files it never saw, such as a shard another team added since, are left alone
+        for (Path shard : shardFingerprints.keySet()) {
+            if (directory.equals(shard.getParent())) {
+                byShard.put(shard, new ArrayList<>());
+            }
+        }
+        Path defaultShard = directory.resolve(DEFAULT_SHARD);
+        for (Server server : servers) {
+            Path shard = shardAssignments.getOrDefault(server.getId(), defaultShard);
+            if (!directory.equals(shard.getParent())) {
+                shard = defaultShard;
+            }
+            byShard.computeIfAbsent(shard, key -> new ArrayList<>()).add(server);
+        }
+
+        int rewritten = 0;
+        for (Map.Entry<Path, List<Server>> entry : byShard.entrySet()) {
+            Path shard = entry.getKey();
+            long fingerprint = fingerprint(entry.getValue());
+            Long previous = shardFingerprints.get(shard);
+            // A shard in an older layout, or missing ids, has the same servers as the one to write but not the same file
+            boolean migrating = legacyFiles.contains(shard) || filesWithNewIds.contains(shard);
+            if (previous != null && previous == fingerprint && Files.exists(shard) && !migrating) {
+                continue;
+            }
+            writeYaml(entry.getValue(), shard, null);
+            shardFingerprints.put(shard, fingerprint);
+            for (Server server : entry.getValue()) {
+                shardAssignments.put(server.getId(), shard);
+            }
+            rewritten++;
+        }
+
+        if (headerComment != null) {
+            // Written last, so it never claims more than the shards on disk contain
+            Path header = directory.resolve(SHARD_HEADER_FILE);
+            Path temporary = Paths.get(header + ".tmp");
+            try (FileOutputStream out = new FileOutputStream(temporary.toFile())) {
+                out.write((headerComment + "\n").getBytes(StandardCharsets.UTF_8));
+                out.getFD().sync();
+            }
+            replace(temporary, header);
+        }
+        return rewritten;
+    }
+
+    // Identifies the saved content of a shard, to tell whether it needs rewriting; 64 bits from two independent hashes
+    private static long fingerprint(List<Server> servers) {
+        CRC32 crc = new CRC32();
+        int hash = servers.size();
+        for (Server server : servers) {
+            Config config = server.getConfig();
+            String line = server.getId().getId() + '\0' + config.getName() + '\0' + config.getHost() + '\0' + config.getPort() + '\0'
+                    + config.getCheckIntervalSeconds() + '\0' + config.getProbeType() + '\n';
+            crc.update(line.getBytes(StandardCharsets.UTF_8));
+            hash = 31 * hash + line.hashCode();
+        }
+        return crc.getValue() << 32 ^ (hash & 0xffffffffL);
+    }
+
+    /**
+     * Returns the header comment the configuration was last saved with, or null if it has none.
+     * @param filePath YAML file or directory of shards
+     */
+    public String readHeaderComment(String filePath) {
+        Path path = Paths.get(filePath);
+        try {
+            if (Files.isDirectory(path)) {
+                Path header = path.resolve(SHARD_HEADER_FILE);
+                return Files.exists(header) ? Files.readString(header, StandardCharsets.UTF_8).trim() : null;
+            }
+            if (!Files.exists(path)) {
+                return null;
+            }
+            try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+                String first = reader.readLine();
+                return first != null && first.startsWith("# ") ? first.substring(2) : null;
+            }
+        } catch (IOException e) {
+            System.err.println("Failed to read configuration header: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private void writeBinarySnapshot(List<Server> servers, String filePath) {
+        // Optional; without it the next start just parses the YAML
+        try {
+            BinaryConfigSnapshot.write(servers, BinaryConfigSnapshot.pathFor(filePath), Paths.get(filePath));
+        } catch (IOException e) {
+            System.err.println("Failed to write configuration snapshot: " + e.getMessage());
+        }
+    }
+
+    /**
+     * A server entry that could not be loaded; the rest of the file is still loaded.
+     * @param entry Position of the entry in the file, starting at 0
+     * @param line Line the entry starts on
+     * @param message What was wrong with it
+     */
+    public record LoadError(int entry, int line, String message) {
+        @Override
+        public String toString() {
+            return "entry " + entry + " (line " + line + "): " + message;
+        }
+    }
+
+    /**
+     * Loads all server configurations from a file, skipping and reporting entries that are malformed.
+     */
     public List<Server> loadConfigurations(String filePath) {
         List<Server> servers = new ArrayList<>();
+        if (Files.isDirectory(Paths.get(filePath))) {
+            loadShards(Paths.get(filePath), servers::add);
+            return servers;
+        }
+        boolean usedSnapshot = binarySnapshotEnabled && loadBinarySnapshot(filePath, servers::add);
+        if (!usedSnapshot) {
+            List<LoadError> errors = loadYamlConfigurations(filePath, servers::add);
+            // The snapshot stands in for the whole file, so only a clean load gets one
+            // and not one whose ids are about to change on migration
+            if (binarySnapshotEnabled && !binarySnapshotReadOnly && errors.isEmpty() && !servers.isEmpty()
+                    && !needsMigration(filePath)) {
+                writeBinarySnapshot(servers, filePath);
+            }
+        }
+        return servers;
+    }
+
+    /**
+     * Streams server configurations from a file, handing each server over as soon as its entry is read,
+     * so memory use does not grow with the size of the file beyond what the consumer keeps.
+     * Reads the binary snapshot instead when it is enabled and matches the file.
+     * @param filePath YAML file in either schema, or a directory of such files, which are loaded in parallel.
+     *                 Version 2 is {@code {version: 2, servers: [{id, server: {name, host, port, ...}}]}};
+     *                 version 1 is a bare list of {@code - server: {name, host, port}} entries without ids.
+     *                 Servers without an id are given {@code srv-<position>} (prefixed with the shard's file
+     *                 name in a directory). Loading never rewrites the file: a version 1 file, or one with
+     *                 servers missing ids, is migrated to version 2 by the next save, see {@link #needsMigration}
+     * @param consumer Receives each server in file order, shards in file name order
+     * @return The entries that were skipped, empty if everything loaded
+     */
+    public List<LoadError> loadConfigurations(String filePath, Consumer<Server> consumer) {
+        if (Files.isDirectory(Paths.get(filePath))) {
+            return loadShards(Paths.get(filePath), consumer);
+        }
+        if (binarySnapshotEnabled && loadBinarySnapshot(filePath, consumer)) {
+            return new ArrayList<>();
+        }
+        return loadYamlConfigurations(filePath, consumer);
+    }
+
+    private boolean loadBinarySnapshot(String filePath, Consumer<Server> consumer) {
+        long startNanos = System.nanoTime();
+        Path snapshotPath = BinaryConfigSnapshot.pathFor(filePath);
+        int loaded = BinaryConfigSnapshot.read(snapshotPath, Paths.get(filePath), consumer);
+        if (loaded < 0) {
+            return false;
+        }
+        System.out.printf("Successfully loaded %d server configurations from %s in %.1f ms%n",
+                loaded, snapshotPath, (System.nanoTime() - startNanos) / 1e6);
+        return true;
+    }
+
+    private List<LoadError> loadShards(Path directory, Consumer<Server> consumer) {
+        long startNanos = System.nanoTime();
+        List<Path> shards = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory.toAbsolutePath(), "*.{yaml,yml}")) {
+            for (Path shard : stream) {
+                shards.add(shard);
+            }
+        } catch (IOException e) {
+            System.err.println("Failed to list configuration shards: " + e.getMessage());
+        }
+        shards.sort(null);
+
+        // Each shard is parsed on its own fork-join task; servers are handed on in shard order once all are parsed
+        List<ForkJoinTask<ShardContent>> tasks = new ArrayList<>(shards.size());
+        for (Path shard : shards) {
+            tasks.add(ForkJoinPool.commonPool().submit(() -> {
+                ShardContent content = new ShardContent(new ArrayList<>(), new ArrayList<>());
+                String idPrefix = shard.getFileName() + "/srv-";
+                content.errors().addAll(loadYaml(shard.toString(), idPrefix, content.servers()::add));
+                return content;
+            }));
+        }
+
+        List<LoadError> errors = new ArrayList<>();
+        int loaded = 0;
+        for (int i = 0; i < shards.size(); i++) {
+            Path shard = shards.get(i);
+            ShardContent content = tasks.get(i).join();
+            shardFingerprints.put(shard, fingerprint(content.servers()));
+            for (Server server : content.servers()) {
+                shardAssignments.put(server.getId(), shard);
+                consumer.accept(server);
+            }
+            for (LoadError error : content.errors()) {
+                errors.add(new LoadError(error.entry(), error.line(), shard.getFileName() + ": " + error.message()));
+            }
+            loaded += content.servers().size();
+        }
+        System.out.printf("Successfully loaded %d server configurations from %d shards in %s in %.1f ms%n",
+                loaded, shards.size(), directory, (System.nanoTime() - startNanos) / 1e6);
+        return errors;
+    }
+
+    private record ShardContent(List<Server> servers, List<LoadError> errors) {
+    }
+
+    /**
+     * Streams server configurations from the YAML file itself, ignoring any binary snapshot.
+     * @see #loadConfigurations(String, Consumer)
+     */
+    public List<LoadError> loadYamlConfigurations(String filePath, Consumer<Server> consumer) {
+        return loadYaml(filePath, "srv-", consumer);
+    }
+
+    private List<LoadError> loadYaml(String filePath, String idPrefix, Consumer<Server> consumer) {
+        List<LoadError> errors = new ArrayList<>();
         File file = new File(filePath);
 
         if (!file.exists()) {
             System.out.println("Configuration file not found: " + filePath);
-            return servers;
+            return errors;
         }
 
-        try {
-            Yaml yaml = new Yaml();
-            try (InputStream inputStream = new FileInputStream(file)) {
-                List<Map<String, Object>> serversData = yaml.load(inputStream);
-
-                if (serversData != null) {
-                    int idx = 0;
-                    for (Map<String, Object> serverMap : serversData) {
-                        // Extract ID
-                        Id id = new Id("srv-" + idx);
-
-                        // Extract Config
-                        Map<String, Object> configMap = (Map<String, Object>) serverMap.get("server");
-                        String name = (String) configMap.get("name");
-                        String host = (String) configMap.get("host");
-                        int port = ((Number) configMap.get("port")).intValue(); // Handle any Number type
-
-                        Config config = new Config(name, host, port);
-                        Server server = new Server(id, config);
-                        servers.add(server);
-                        ++idx;
+        // Counted as they are handed on, so the count is right even if the file breaks off
+        int[] loaded = {0};
+        Consumer<Server> counting = server -> {
+            consumer.accept(server);
+            loaded[0]++;
+        };
+        try (JsonParser parser = YAML_FACTORY.createParser(file)) {
+            JsonToken token = parser.nextToken();
+            if (token == null) {
+                System.out.println("Configuration file is empty: " + filePath);
+                return errors;
+            }
+            Path path = file.toPath().toAbsolutePath();
+            if (token == JsonToken.START_ARRAY) {
+                // Version 1: no ids in the file, so they are assigned by position as they always were;
+                // the next save persists exactly these, keeping journals and probe history that refer to them valid
+                legacyFiles.add(path);
+                readEntries(parser, entry -> new Id(idPrefix + entry), counting, errors);
+            } else if (token == JsonToken.START_OBJECT) {
+                legacyFiles.remove(path);
+                filesWithNewIds.remove(path);
+                while ((token = parser.nextToken()) == JsonToken.FIELD_NAME) {
+                    String field = parser.getCurrentName();
+                    token = parser.nextToken();
+                    if ("version".equals(field) && token == JsonToken.VALUE_NUMBER_INT) {
+                        if (parser.getIntValue() > SCHEMA_VERSION) {
+                            System.err.println(filePath + " was written by a newer version (schema " + parser.getIntValue()
+                                    + "); loading the fields this version knows");
+                        }
+                    } else if ("servers".equals(field) && token == JsonToken.START_ARRAY) {
+                        // Entries added by hand without an id get a new one; the file is marked for migration
+                        // so the next save persists it, or the server would get another id on every load
+                        readEntries(parser, entry -> {
+                            filesWithNewIds.add(path);
+                            return new Id(UUID.randomUUID().toString());
+                        }, counting, errors);
+                    } else {
+                        parser.skipChildren();
                     }
                 }
-
-                System.out.println("Successfully loaded " + servers.size() + " server configurations from " + filePath);
+            } else {
+                errors.add(new LoadError(0, parser.getTokenLocation().getLineNr(), "expected a list of servers"));
             }
-
         } catch (IOException e) {
+            // Unreadable file or broken YAML syntax; servers read up to this point are kept
             System.err.println("Failed to load configurations: " + e.getMessage());
-            e.printStackTrace();
-        } catch (ClassCastException | NullPointerException e) {
-            System.err.println("Malformed configuration file: " + e.getMessage());
-            e.printStackTrace();
         }
 
-        return servers;
+        for (LoadError error : errors) {
+            System.err.println("Skipped server configuration " + error);
+        }
+        System.out.println("Successfully loaded " + loaded[0] + " server configurations from " + filePath
+                + (errors.isEmpty() ? "" : " (" + errors.size() + " skipped)"));
+        return errors;
+    }
+
+    // Reads list entries up to the end of the list
+    private static void readEntries(JsonParser parser, IntFunction<Id> missingId, Consumer<Server> consumer,
+                                   List<LoadError> errors) throws IOException {
+        int entry = 0;
+        Set<String> ids = new HashSet<>();
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY && token != null) {
+            int line = parser.getTokenLocation().getLineNr();
+            EntryReader reader = new EntryReader();
+            reader.read(parser, token);
+            if (reader.id != null && !ids.add(reader.id)) {
+                reader.fail("duplicate id: " + reader.id);
+            }
+            int position = entry;
+            Server server = reader.toServer(() -> reader.id != null ? new Id(reader.id) : missingId.apply(position));
+            if (server != null) {
+                consumer.accept(server);
+            } else {
+                errors.add(new LoadError(entry, line, reader.error));
+            }
+            entry++;
+        }
+    }
+
+    // Reads one list entry token by token; problems are recorded rather than thrown so the parser stays in step
+    private static final class EntryReader {
+        static final Set<String> KNOWN_FIELDS = Set.of("name", "host", "port", "interval", "probe");
+
+        String id;
+        String name;
+        String host;
+        Integer port;
+        Integer interval;
+        String probe;
+        String error;
+
+        void read(JsonParser parser, JsonToken token) throws IOException {
+            if (token != JsonToken.START_OBJECT) {
+                fail("expected a server entry");
+                parser.skipChildren();
+                return;
+            }
+            boolean sawServer = false;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+                if ("server".equals(field) && value == JsonToken.START_OBJECT) {
+                    sawServer = true;
+                    readConfig(parser);
+                } else if ("id".equals(field) && value.isScalarValue()) {
+                    id = parser.getValueAsString();
+                    if (id == null || id.isBlank()) {
+                        fail("id must not be empty");
+                    }
+                } else {
+                    parser.skipChildren(); // Unknown keys are ignored, as before
+                }
+            }
+            if (!sawServer) {
+                fail("missing server section");
+            }
+        }
+
+        private void readConfig(JsonParser parser) throws IOException {
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+                if (value.isStructStart()) {
+                    if (KNOWN_FIELDS.contains(field)) {
+                        fail("'" + field + "' must be a single value");
+                    }
+                    parser.skipChildren();
+                    continue;
+                }
+                switch (field) {
+                    case "name" -> name = parser.getValueAsString();
+                    case "host" -> host = parser.getValueAsString();
+                    case "port" -> port = readInt(parser, field);
+                    case "interval" -> interval = readInt(parser, field);
+                    case "probe" -> probe = parser.getValueAsString();
+                    default -> {
+                        // Ignored, so files written by newer versions still load
+                    }
+                }
+            }
+        }
+
+        private Integer readInt(JsonParser parser, String field) throws IOException {
+            if (parser.currentToken() == JsonToken.VALUE_NUMBER_INT) {
+                try {
+                    return parser.getIntValue();
+                } catch (InputCoercionException e) {
+                    // Too large for an int; the token is already read, so the rest of the file still parses
+                    fail("'" + field + "' out of range: " + parser.getText());
+                    return null;
+                }
+            }
+            try {
+                return Integer.parseInt(parser.getValueAsString("").trim());
+            } catch (NumberFormatException e) {
+                fail("'" + field + "' must be a whole number, got '" + parser.getText() + "'");
+                return null;
+            }
+        }
+
+        private void fail(String message) {
+            if (error == null) {
+                error = message;
+            }
+        }
+
+        // The id is only asked for once the entry turned out valid
+        Server toServer(Supplier<Id> id) {
+            if (error == null) {
+                if (name == null || host == null || port == null) {
+                    fail("name, host and port are required");
+                } else if (port < 0 || port > 65535) {
+                    fail("port out of range: " + port);
+                } else if (interval != null && interval <= 0) {
+                    fail("interval must be positive: " + interval);
+                }
+            }
+            Config.ProbeType probeType = Config.ProbeType.HTTP;
+            if (error == null && probe != null) {
+                try {
+                    probeType = Config.ProbeType.valueOf(probe.trim().toUpperCase(Locale.ROOT));
+                } catch (IllegalArgumentException e) {
+                    fail("unknown probe type: " + probe);
+                }
+            }
+            if (error != null) {
+                return null;
+            }
+
+            Config config = new Config(name, host, port, interval != null ? interval : Config.DEFAULT_CHECK_INTERVAL_SECONDS);
+            config.setProbeType(probeType);
+            return new Server(id.get(), config);
+        }
     }
 }
\ No newline at end of file
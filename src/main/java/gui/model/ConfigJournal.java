@@ -0,0 +1,523 @@
+package gui.model;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.zip.CRC32;
+
+/**
+ * Write-ahead journal that persists server changes without rewriting the whole configuration file.
+ * Every add and remove is appended as one checksummed line to {@code <config>.journal}, so an edit
+ * costs the same whatever the size of the fleet. Once enough changes have piled up the journal is
+ * compacted in the background: the full server list is written as a new config.yaml snapshot,
+ * which records the sequence number of the last change it contains, and the journal is dropped.
+ *
+ * On startup {@link #recover()} loads the snapshot and replays any journaled changes newer than it,
+ * so changes made since the last compaction survive a crash. A torn last line is ignored.
+ *
+ * Writes happen on a single background thread, never on the thread recording the change. The first
+ * change after a write starts a short coalescing window; everything recorded within it is appended
+ * with a single write and fsync, and compactions requested within it are written once, as the latest
+ * snapshot. Changes must be recorded from the thread that changes the servers (the EDT in the GUI),
+ * so that a snapshot captured there contains exactly the changes recorded before it.
+ */
+public class ConfigJournal {
+    public static final int DEFAULT_COMPACTION_THRESHOLD = 1000;
+    public static final long DEFAULT_COALESCE_MILLIS = 50;
+    private static final String SEQUENCE_HEADER = "journal-sequence: ";
+    private static final String ADD = "add";
+    private static final String REMOVE = "remove";
+
+    private final ConfigFileManager configFileManager;
+    private final Path configPath;
+    private final Path journalPath;
+    private final Path compactingPath;
+    private final Supplier<List<Server>> currentServers;
+    private final int compactionThreshold;
+    private final long coalesceMillis;
+    private final ScheduledExecutorService writer;
+    private FileChannel journal; // Only touched on the writer thread
+    private long sequence;
+    private int recordsSinceCompaction;
+    // Waiting for the next write pass, guarded by this
+    private StringBuilder pendingRecords = new StringBuilder();
+    private Snapshot pendingSnapshot;
+    private boolean writeScheduled;
+    private volatile long lastCompactionNanos = -1;
+    private volatile long writePasses;
+    private long compactionsCoalesced; // Guarded by this
+    // Recovery runs without the lock, so changes recorded meanwhile wait here for their sequence numbers
+    private boolean recovering;
+    private List<Change> recordedDuringRecovery = new ArrayList<>();
+    private boolean compactionsPaused;
+    private boolean compactionDeferred;
+    private boolean closed;
+
+    private record Change(String operation, Entry entry) {
+    }
+
+    // Servers to write as the next snapshot, with the records older than it that were not written yet
+    private record Snapshot(List<Server> servers, long sequence, String olderRecords) {
+    }
+
+    private record Entry(String id, String name, String host, int port, int interval, Config.ProbeType probeType) {
+        static Entry of(Server server) {
+            Config config = server.getConfig();
+            return new Entry(server.getId().getId(), config.getName(), config.getHost(), config.getPort(),
+                    config.getCheckIntervalSeconds(), config.getProbeType());
+        }
+
+        static Entry of(Config config) {
+            return new Entry(null, config.getName(), config.getHost(), config.getPort(),
+                    config.getCheckIntervalSeconds(), config.getProbeType());
+        }
+
+        // Content without the id, to find servers in snapshots from before ids were saved
+        Entry content() {
+            return new Entry(null, name, host, port, interval, probeType);
+        }
+
+        Server toServer() {
+            Config config = new Config(name, host, port, interval);
+            config.setProbeType(probeType);
+            return new Server(new Id(id), config);
+        }
+    }
+
+    /**
+     * @param configFileManager Used to read and write the YAML snapshot
+     * @param configFilePath Snapshot file; the journal is kept next to it
+     * @param currentServers Supplies the servers to write when compacting, e.g. ServerManager::getAllServers
+     */
+    public ConfigJournal(ConfigFileManager configFileManager, String configFilePath, Supplier<List<Server>> currentServers) {
+        this(configFileManager, configFilePath, currentServers, DEFAULT_COMPACTION_THRESHOLD, DEFAULT_COALESCE_MILLIS);
+    }
+
+    /**
+     * @param compactionThreshold Number of journaled changes after which a compaction is started
+     * @param coalesceMillis How long changes are collected before they are written together
+     */
+    public ConfigJournal(ConfigFileManager configFileManager, String configFilePath, Supplier<List<Server>> currentServers,
+                         int compactionThreshold, long coalesceMillis) {
+        this.configFileManager = configFileManager;
+        this.configPath = Paths.get(configFilePath);
+        this.journalPath = Paths.get(configFilePath + ".journal");
+        this.compactingPath = Paths.get(configFilePath + ".journal.compacting");
+        this.currentServers = currentServers;
+        this.compactionThreshold = compactionThreshold;
+        this.coalesceMillis = coalesceMillis;
+        this.writer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "config-journal");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Loads the snapshot and replays the journaled changes made after it. Changes can be recorded while this runs;
+     * they are journaled after the recovered ones. Compactions requested meanwhile run once it is done.
+     * @return The servers as they were after the last recorded change
+     */
+    public List<Server> recover() {
+        synchronized (this) {
+            recovering = true;
+        }
+        long recoveredSequence = readSnapshotSequence();
+        int replayed = 0;
+        try {
+            Map<Id, Server> servers = new LinkedHashMap<>();
+            for (Server server : configFileManager.loadConfigurations(configPath.toString())) {
+                servers.put(server.getId(), server);
+            }
+
+            // Servers by content, for journals recorded against a version 1 snapshot whose ids were positional
+            Map<Entry, ArrayDeque<Id>> byContent = new HashMap<>();
+            for (Server server : servers.values()) {
+                byContent.computeIfAbsent(Entry.of(server.getConfig()), key -> new ArrayDeque<>()).add(server.getId());
+            }
+
+            // A compaction that did not finish leaves its rotated journal behind; it is older than the active one
+            for (Path path : List.of(compactingPath, journalPath)) {
+                if (!Files.exists(path)) {
+                    continue;
+                }
+                try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+                    String line;
+                    int lineNumber = 0;
+                    while ((line = reader.readLine()) != null) {
+                        lineNumber++;
+                        String[] fields = parse(line);
+                        if (fields == null) {
+                            // Anything after a damaged line was written after it, so stop here
+                            System.err.println("Ignoring damaged journal record at " + path + ":" + lineNumber);
+                            break;
+                        }
+                        long recordSequence = Long.parseLong(fields[0]);
+                        if (recordSequence <= recoveredSequence) {
+                            continue; // Already in the snapshot, or a copy left by an interrupted journal merge
+                        }
+                        recoveredSequence = recordSequence;
+                        Entry entry = new Entry(fields[2], fields[3], fields[4], Integer.parseInt(fields[5]),
+                                Integer.parseInt(fields[6]), Config.ProbeType.valueOf(fields[7]));
+                        if (ADD.equals(fields[1])) {
+                            // Ids are stable, so an add for an id that is already there replaces that server
+                            Server server = entry.toServer();
+                            Server replaced = servers.put(server.getId(), server);
+                            if (replaced != null) {
+                                forget(byContent, replaced);
+                            }
+                            byContent.computeIfAbsent(entry.content(), key -> new ArrayDeque<>()).add(server.getId());
+                        } else {
+                            removeReplayed(servers, byContent, entry);
+                        }
+                        replayed++;
+                    }
+                } catch (IOException | RuntimeException e) {
+                    System.err.println("Failed to replay configuration journal " + path + ": " + e.getMessage());
+                }
+            }
+
+            if (replayed > 0) {
+                System.out.println("Recovered " + replayed + " journaled configuration changes");
+            }
+            return new ArrayList<>(servers.values());
+        } finally {
+            finishRecovery(recoveredSequence, replayed);
+        }
+    }
+
+    private synchronized void finishRecovery(long recoveredSequence, int replayed) {
+        sequence = recoveredSequence;
+        recordsSinceCompaction = replayed;
+        recovering = false;
+        List<Change> changes = recordedDuringRecovery;
+        recordedDuringRecovery = new ArrayList<>();
+        for (Change change : changes) {
+            record(change.operation(), change.entry());
+        }
+        if (compactionDeferred && !compactionsPaused) {
+            compact();
+        }
+    }
+
+    /**
+     * Holds compactions back until {@link #resumeCompactions()}, for while recovered servers are still being added
+     * and a snapshot would be missing the rest. Changes are still journaled, and closing does not compact.
+     */
+    public synchronized void pauseCompactions() {
+        compactionsPaused = true;
+    }
+
+    /**
+     * Lets compactions run again, starting with any that was requested while they were paused.
+     */
+    public synchronized void resumeCompactions() {
+        compactionsPaused = false;
+        if (compactionDeferred && !recovering) {
+            compact();
+        }
+    }
+
+    private static void removeReplayed(Map<Id, Server> servers, Map<Entry, ArrayDeque<Id>> byContent, Entry entry) {
+        Id id = new Id(entry.id());
+        Server server = servers.get(id);
+        // In a version 1 snapshot the id may have shifted to another server, so the content has to match too
+        if (server != null && Entry.of(server.getConfig()).equals(entry.content())) {
+            servers.remove(id);
+            forget(byContent, server);
+            return;
+        }
+        // Not there under its id, so the snapshot predates saved ids; take a server with the same content
+        ArrayDeque<Id> candidates = byContent.get(entry.content());
+        if (candidates != null && !candidates.isEmpty()) {
+            servers.remove(candidates.poll());
+        }
+    }
+
+    private static void forget(Map<Entry, ArrayDeque<Id>> byContent, Server server) {
+        ArrayDeque<Id> ids = byContent.get(Entry.of(server.getConfig()));
+        if (ids != null) {
+            ids.remove(server.getId());
+        }
+    }
+
+    private long readSnapshotSequence() {
+        String header = configFileManager.readHeaderComment(configPath.toString());
+        if (header != null && header.startsWith(SEQUENCE_HEADER)) {
+            try {
+                return Long.parseLong(header.substring(SEQUENCE_HEADER.length()).trim());
+            } catch (NumberFormatException e) {
+                System.err.println("Failed to read configuration snapshot header: " + e.getMessage());
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Journals a server that was added.
+     */
+    public void recordAdded(Server server) {
+        record(ADD, server);
+    }
+
+    /**
+     * Journals a server whose configuration changed. Replayed like an add, which replaces the server with the same id.
+     */
+    public void recordUpdated(Server server) {
+        record(ADD, server);
+    }
+
+    /**
+     * Journals a server that was removed.
+     */
+    public void recordRemoved(Server server) {
+        record(REMOVE, server);
+    }
+
+    private synchronized void record(String operation, Server server) {
+        record(operation, Entry.of(server));
+    }
+
+    private void record(String operation, Entry entry) {
+        if (closed) {
+            return;
+        }
+        if (recovering) {
+            // Numbered once the sequence of the journaled changes is known
+            recordedDuringRecovery.add(new Change(operation, entry));
+            return;
+        }
+        appendRecord(pendingRecords, ++sequence, operation, entry);
+        scheduleWrite();
+        if (++recordsSinceCompaction >= compactionThreshold) {
+            compact();
+        }
+    }
+
+    /**
+     * Writes the current servers as a new snapshot in the background and drops the journal it covers.
+     */
+    public synchronized void compact() {
+        if (closed) {
+            return;
+        }
+        if (recovering || compactionsPaused) {
+            compactionDeferred = true;
+            return;
+        }
+        compactionDeferred = false;
+        // The records still waiting belong before the snapshot; they go to the journal it replaces
+        String olderRecords = pendingRecords.toString();
+        if (pendingSnapshot != null) {
+            olderRecords = pendingSnapshot.olderRecords() + olderRecords;
+            compactionsCoalesced++;
+        }
+        pendingSnapshot = new Snapshot(currentServers.get(), sequence, olderRecords);
+        pendingRecords = new StringBuilder();
+        recordsSinceCompaction = 0;
+        scheduleWrite();
+    }
+
+    private void scheduleWrite() {
+        if (!writeScheduled) {
+            writeScheduled = true;
+            writer.schedule(this::write, coalesceMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    // One write pass on the writer thread: the latest snapshot if any, then the records made after it
+    private void write() {
+        Snapshot snapshot;
+        String records;
+        synchronized (this) {
+            snapshot = pendingSnapshot;
+            records = pendingRecords.toString();
+            pendingSnapshot = null;
+            pendingRecords = new StringBuilder();
+            writeScheduled = false;
+        }
+        writePasses++;
+        if (snapshot != null) {
+            appendToJournal(snapshot.olderRecords());
+            writeSnapshot(snapshot.servers(), snapshot.sequence());
+        }
+        appendToJournal(records);
+    }
+
+    private static void appendRecord(StringBuilder out, long recordSequence, String operation, Entry entry) {
+        int start = out.length();
+        out.append(recordSequence).append('\t').append(operation);
+        for (String field : new String[]{entry.id(), entry.name(), entry.host(), String.valueOf(entry.port()),
+                String.valueOf(entry.interval()), entry.probeType().name()}) {
+            out.append('\t');
+            escape(out, field);
+        }
+        CRC32 crc = new CRC32();
+        crc.update(out.substring(start).getBytes(StandardCharsets.UTF_8));
+        out.append('\t').append(Long.toHexString(crc.getValue())).append('\n');
+    }
+
+    private void appendToJournal(String records) {
+        if (records.isEmpty()) {
+            return;
+        }
+        try {
+            if (journal == null) {
+                journal = FileChannel.open(journalPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                        StandardOpenOption.APPEND);
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(records.getBytes(StandardCharsets.UTF_8));
+            while (buffer.hasRemaining()) {
+                journal.write(buffer);
+            }
+            journal.force(false);
+        } catch (IOException e) {
+            System.err.println("Failed to journal configuration change: " + e.getMessage());
+        }
+    }
+
+    private void writeSnapshot(List<Server> servers, long snapshotSequence) {
+        long startNanos = System.nanoTime();
+        try {
+            // Changes after this point go to a fresh journal; the rotated one is only dropped once the snapshot is in place
+            if (journal != null) {
+                journal.close();
+                journal = null;
+            }
+            if (Files.exists(journalPath)) {
+                if (Files.exists(compactingPath)) {
+                    // Left by an earlier failed compaction; its records are older, so keep them first
+                    try (FileChannel older = FileChannel.open(compactingPath, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+                        older.write(ByteBuffer.wrap(Files.readAllBytes(journalPath)));
+                        older.force(false);
+                    }
+                    Files.delete(journalPath);
+                } else {
+                    Files.move(journalPath, compactingPath, StandardCopyOption.ATOMIC_MOVE);
+                }
+            }
+
+            // Written to a temporary file, forced and renamed into place, so config.yaml is always complete
+            configFileManager.writeConfigurations(servers, configPath.toString(), SEQUENCE_HEADER + snapshotSequence);
+            Files.deleteIfExists(compactingPath);
+            lastCompactionNanos = System.nanoTime() - startNanos;
+        } catch (IOException e) {
+            // The journals are kept, so nothing is lost; the next compaction tries again
+            System.err.println("Failed to compact configuration journal: " + e.getMessage());
+        }
+    }
+
+    private static void escape(StringBuilder out, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\\' -> out.append("\\\\");
+                case '\t' -> out.append("\\t");
+                case '\n' -> out.append("\\n");
+                case '\r' -> out.append("\\r");
+                default -> out.append(c);
+            }
+        }
+    }
+
+    private static String unescape(String value) {
+        if (value.indexOf('\\') < 0) {
+            return value;
+        }
+        StringBuilder out = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\\' && i + 1 < value.length()) {
+                char next = value.charAt(++i);
+                out.append(next == 't' ? '\t' : next == 'n' ? '\n' : next == 'r' ? '\r' : next);
+            } else {
+                out.append(c);
+            }
+        }
+        return out.toString();
+    }
+
+    // Returns the unescaped fields of a record, or null if it is incomplete or fails its checksum
+    private static String[] parse(String line) {
+        int checksumStart = line.lastIndexOf('\t');
+        if (checksumStart < 0) {
+            return null;
+        }
+        String body = line.substring(0, checksumStart);
+        CRC32 crc = new CRC32();
+        crc.update(body.getBytes(StandardCharsets.UTF_8));
+        if (!Long.toHexString(crc.getValue()).equals(line.substring(checksumStart + 1))) {
+            return null;
+        }
+        String[] fields = body.split("\t", -1);
+        if (fields.length != 8) {
+            return null;
+        }
+        for (int i = 0; i < fields.length; i++) {
+            fields[i] = unescape(fields[i]);
+        }
+        return fields;
+    }
+
+    public synchronized int getRecordsSinceCompaction() {
+        return recordsSinceCompaction;
+    }
+
+    /**
+     * Returns how many background write passes ran; each covers every change recorded since the previous one.
+     */
+    public long getWritePasses() {
+        return writePasses;
+    }
+
+    /**
+     * Returns how many requested compactions were superseded by a later one before being written.
+     */
+    public synchronized long getCompactionsCoalesced() {
+        return compactionsCoalesced;
+    }
+
+    /**
+     * Returns how long the last compaction took in nanoseconds, or -1 if none has run.
+     */
+    public long getLastCompactionNanos() {
+        return lastCompactionNanos;
+    }
+
+    /**
+     * Writes a final snapshot if anything was journaled since the last one, unless compactions are paused,
+     * then stops the writer thread once everything waiting has been written. Changes recorded afterwards are
+     * not persisted.
+     */
+    public void close() {
+        synchronized (this) {
+            if (recordsSinceCompaction > 0 && !recovering && !compactionsPaused) {
+                compact();
+            }
+            closed = true;
+        }
+        writer.shutdown();
+        try {
+            writer.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,291 @@
+package gui.model;
+
+import java.beans.PropertyChangeListener;
+import java.beans.PropertyChangeSupport;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Watches the configuration file, or directory of shards, and applies external changes to a running
+ * {@link ServerManager} without a restart. The file is re-read once changes have settled and compared
+ * with the current servers by id, or by content for files without saved ids: servers that are unchanged
+ * are left alone and keep their health checks and status, a server whose id, or failing that name or
+ * address, stayed the same is updated in place under its id, and only the rest are added or removed.
+ * Saves made by {@link ConfigFileManager} itself are ignored.
+ *
+ * Files are parsed on the watcher thread; the diff is computed and applied on the given executor,
+ * which must be the thread that changes the servers (the EDT in the GUI).
+ */
+public class ConfigReloader {
+    public static final String PROP_RELOADED = "configurationReloaded";
+    // Changes within this window are picked up by one reload, so a tool writing several files causes one update
+    private static final long SETTLE_MILLIS = 250;
+
+    private final ConfigFileManager configFileManager;
+    private final ServerManager serverManager;
+    private final Path configPath;
+    private final boolean sharded;
+    private final Executor applyExecutor;
+    private final PropertyChangeSupport pcs = new PropertyChangeSupport(this);
+    private WatchService watchService;
+    private Thread watcher;
+
+    /**
+     * Summary of one applied reload, passed as the new value of {@link #PROP_RELOADED} events.
+     */
+    public record Result(int added, int removed, int updated, int unchanged) {
+        public boolean isEmpty() {
+            return added == 0 && removed == 0 && updated == 0;
+        }
+
+        @Override
+        public String toString() {
+            return added + " added, " + removed + " removed, " + updated + " updated, " + unchanged + " unchanged";
+        }
+    }
+
+    // What a server is saved as; two servers with the same key are interchangeable
+    private record Key(String name, String host, int port, int interval, Config.ProbeType probeType) {
+        static Key of(Config config) {
+            return new Key(config.getName(), config.getHost(), config.getPort(), config.getCheckIntervalSeconds(),
+                    config.getProbeType());
+        }
+    }
+
+    public ConfigReloader(ConfigFileManager configFileManager, ServerManager serverManager, String configFilePath,
+                          Executor applyExecutor) {
+        this.configFileManager = configFileManager;
+        this.serverManager = serverManager;
+        this.configPath = Paths.get(configFilePath).toAbsolutePath();
+        this.sharded = Files.isDirectory(configPath);
+        this.applyExecutor = applyExecutor;
+    }
+
+    public void addPropertyChangeListener(String propertyName, PropertyChangeListener listener) {
+        pcs.addPropertyChangeListener(propertyName, listener);
+    }
+
+    public void removePropertyChangeListener(String propertyName, PropertyChangeListener listener) {
+        pcs.removePropertyChangeListener(propertyName, listener);
+    }
+
+    public void start() throws IOException {
+        Path directory = sharded ? configPath : configPath.getParent();
+        watchService = FileSystems.getDefault().newWatchService();
+        // Tools usually replace the file by renaming a new one over it, which shows up as a create
+        directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY,
+                StandardWatchEventKinds.ENTRY_DELETE);
+        watcher = new Thread(this::watch, "config-reloader");
+        watcher.setDaemon(true);
+        watcher.start();
+    }
+
+    public void stop() {
+        if (watchService != null) {
+            try {
+                watchService.close();
+            } catch (IOException e) {
+                System.err.println("Failed to stop configuration watcher: " + e.getMessage());
+            }
+        }
+    }
+
+    private void watch() {
+        try {
+            while (true) {
+                Set<Path> changed = new HashSet<>();
+                WatchKey key = watchService.take();
+                // Keep collecting until nothing changed for a moment
+                while (key != null) {
+                    collect(key, changed);
+                    key = watchService.poll(SETTLE_MILLIS, TimeUnit.MILLISECONDS);
+                }
+                if (!changed.isEmpty() && !allOwnWrites(changed)) {
+                    reload();
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // Stopped
+        }
+    }
+
+    private void collect(WatchKey key, Set<Path> changed) {
+        Path directory = (Path) key.watchable();
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                // Events were lost; treat it as a change to the configuration
+                changed.add(configPath);
+                continue;
+            }
+            Path path = directory.resolve((Path) event.context());
+            if (sharded ? isShard(path) : path.equals(configPath)) {
+                changed.add(path);
+            }
+        }
+        key.reset();
+    }
+
+    private static boolean isShard(Path path) {
+        String name = path.getFileName().toString();
+        return name.endsWith(".yaml") || name.endsWith(".yml");
+    }
+
+    private boolean allOwnWrites(Set<Path> changed) {
+        for (Path path : changed) {
+            if (!configFileManager.isOwnWrite(path)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void reload() {
+        List<Server> loaded = new ArrayList<>();
+        List<ConfigFileManager.LoadError> errors = configFileManager.loadConfigurations(configPath.toString(), loaded::add);
+        if (loaded.isEmpty() && !errors.isEmpty()) {
+            // Most likely caught halfway through being written; the next change event reloads again
+            System.err.println("Not applying configuration reload: nothing could be loaded from " + configPath);
+            return;
+        }
+        // Ids in a version 1 file are positional, so they only say which entry it is, not which server
+        boolean stableIds = !configFileManager.hasPositionalIds(configPath.toString());
+        applyExecutor.execute(() -> {
+            Result result = apply(loaded, stableIds);
+            System.out.println("Reloaded " + configPath + ": " + result);
+            pcs.firePropertyChange(PROP_RELOADED, null, result);
+        });
+    }
+
+    /**
+     * Changes the servers to match the loaded ones, touching only those that differ.
+     * @param stableIds Whether the loaded ids were saved with the servers, so that a matching id means the same server
+     */
+    Result apply(List<Server> loaded, boolean stableIds) {
+        List<Server> current = serverManager.getAllServers();
+        int unchanged = 0;
+        int updated = 0;
+        int added = 0;
+        int removed = 0;
+        serverManager.startBatchOperation();
+        try {
+            // Servers are matched by id where ids can be trusted; by content otherwise
+            Map<Id, Server> unmatchedById = new HashMap<>();
+            if (stableIds) {
+                for (Server server : current) {
+                    unmatchedById.put(server.getId(), server);
+                }
+            }
+            Map<Key, ArrayDeque<Server>> unmatchedCurrent = new HashMap<>();
+            List<Server> unmatchedLoaded = new ArrayList<>();
+            for (Server server : loaded) {
+                Server previous = unmatchedById.remove(server.getId());
+                if (previous == null) {
+                    unmatchedLoaded.add(server);
+                } else if (Key.of(previous.getConfig()).equals(Key.of(server.getConfig()))) {
+                    unchanged++;
+                } else {
+                    replace(previous, server.getConfig());
+                    updated++;
+                }
+            }
+            for (Server server : stableIds ? unmatchedById.values() : current) {
+                unmatchedCurrent.computeIfAbsent(Key.of(server.getConfig()), key -> new ArrayDeque<>()).add(server);
+            }
+
+            // Pair up identical servers among the rest; duplicates are matched one to one
+            List<Server> changed = new ArrayList<>();
+            for (Server server : unmatchedLoaded) {
+                ArrayDeque<Server> same = unmatchedCurrent.get(Key.of(server.getConfig()));
+                if (same != null && !same.isEmpty()) {
+                    same.poll();
+                    unchanged++;
+                } else {
+                    changed.add(server);
+                }
+            }
+
+            // Whatever is left over was edited if its name, or failing that its address, still matches
+            Map<String, ArrayDeque<Server>> byName = new HashMap<>();
+            Map<String, ArrayDeque<Server>> byAddress = new HashMap<>();
+            for (ArrayDeque<Server> servers : unmatchedCurrent.values()) {
+                for (Server server : servers) {
+                    byName.computeIfAbsent(server.getConfig().getName(), key -> new ArrayDeque<>()).add(server);
+                    byAddress.computeIfAbsent(addressOf(server.getConfig()), key -> new ArrayDeque<>()).add(server);
+                }
+            }
+            Set<Server> replaced = new HashSet<>();
+            for (Server server : changed) {
+                Server previous = takeUnreplaced(byName.get(server.getConfig().getName()), replaced);
+                if (previous == null) {
+                    previous = takeUnreplaced(byAddress.get(addressOf(server.getConfig())), replaced);
+                }
+                if (previous != null) {
+                    replaced.add(previous);
+                    replace(previous, server.getConfig());
+                    updated++;
+                } else {
+                    Id id = server.getId();
+                    if (serverManager.getServer(id) != null) {
+                        // Only possible with positional ids, which can belong to another server by now
+                        id = new Id(UUID.randomUUID().toString());
+                        configFileManager.inheritShard(server.getId(), id);
+                    }
+                    serverManager.addServer(new Server(id, server.getConfig()));
+                    added++;
+                }
+            }
+
+            for (ArrayDeque<Server> servers : unmatchedCurrent.values()) {
+                for (Server server : servers) {
+                    if (!replaced.contains(server)) {
+                        serverManager.removeServer(server.getId());
+                        removed++;
+                    }
+                }
+            }
+            return new Result(added, removed, updated, unchanged);
+        } finally {
+            serverManager.endBatchOperation(false);
+        }
+    }
+
+    // Updates the server in place, so selection, shard, status and history stay with it
+    private void replace(Server previous, Config config) {
+        serverManager.updateServer(previous.getId(), config);
+    }
+
+    private static String addressOf(Config config) {
+        return config.getHost() + ':' + config.getPort();
+    }
+
+    private static Server takeUnreplaced(ArrayDeque<Server> candidates, Set<Server> replaced) {
+        if (candidates == null) {
+            return null;
+        }
+        Server server;
+        while ((server = candidates.poll()) != null) {
+            if (!replaced.contains(server)) {
+                return server;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,217 @@
+package gui.model;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Host name resolution cache for health probes.
+ * Lookups run on a small pool of resolver threads, never on the caller, and concurrent lookups
+ * of the same name share one query. Successful answers are kept for a TTL and refreshed in the
+ * background once most of the TTL has passed, so busy hosts never wait on the resolver; failures
+ * are cached for a shorter negative TTL. The resolver is pluggable so a local stand-in can be used.
+ */
+public class DnsCache {
+    public static final long DEFAULT_TTL_MILLIS = TimeUnit.SECONDS.toMillis(60);
+    public static final long DEFAULT_NEGATIVE_TTL_MILLIS = TimeUnit.SECONDS.toMillis(10);
+    private static final int RESOLVER_THREADS = 4;
+    private static final double REFRESH_AHEAD_FRACTION = 0.8;
+
+    /**
+     * Turns a host name into an address. May block.
+     */
+    public interface Resolver {
+        InetAddress resolve(String host) throws UnknownHostException;
+    }
+
+    private record Entry(InetAddress address, UnknownHostException failure, long refreshAtNanos, long expiresAtNanos) {
+    }
+
+    private final Resolver resolver;
+    private final LongSupplier nanoClock;
+    private final long ttlNanos;
+    private final long negativeTtlNanos;
+    private final ExecutorService resolverExecutor;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<InetAddress>> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong refreshes = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final LatencyHistogram lookupLatency = new LatencyHistogram();
+
+    public DnsCache() {
+        this(InetAddress::getByName, DEFAULT_TTL_MILLIS, DEFAULT_NEGATIVE_TTL_MILLIS);
+    }
+
+    /**
+     * @param resolver Resolver queried on a cache miss or refresh
+     * @param ttlMillis How long a successful answer is used
+     * @param negativeTtlMillis How long a failed lookup is remembered
+     */
+    public DnsCache(Resolver resolver, long ttlMillis, long negativeTtlMillis) {
+        this(resolver, ttlMillis, negativeTtlMillis, System::nanoTime);
+    }
+
+    /**
+     * @param nanoClock Source of {@link System#nanoTime()} style timestamps, replaceable to test expiry
+     */
+    DnsCache(Resolver resolver, long ttlMillis, long negativeTtlMillis, LongSupplier nanoClock) {
+        this.resolver = resolver;
+        this.nanoClock = nanoClock;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+        this.negativeTtlNanos = TimeUnit.MILLISECONDS.toNanos(negativeTtlMillis);
+
+        AtomicInteger threadCount = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "dns-resolver-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        this.resolverExecutor = Executors.newFixedThreadPool(RESOLVER_THREADS, threadFactory);
+    }
+
+    /**
+     * Resolves a host name. The returned future is already complete when the answer is cached.
+     * @param host Host name or address literal
+     * @return Future completed with the address, or exceptionally with an UnknownHostException,
+     *         or a RejectedExecutionException once the cache is shut down
+     */
+    public CompletableFuture<InetAddress> resolveAsync(String host) {
+        long now = nanoClock.getAsLong();
+        Entry entry = entries.get(host);
+        if (entry != null && now - entry.expiresAtNanos() < 0) {
+            hits.incrementAndGet();
+            if (entry.address() == null) {
+                return CompletableFuture.failedFuture(entry.failure());
+            }
+            if (now - entry.refreshAtNanos() >= 0) {
+                if (inFlight.get(host) == null) {
+                    refreshes.incrementAndGet();
+                }
+                lookup(host);
+            }
+            return CompletableFuture.completedFuture(entry.address());
+        }
+
+        misses.incrementAndGet();
+        return lookup(host);
+    }
+
+    private CompletableFuture<InetAddress> lookup(String host) {
+        CompletableFuture<InetAddress> pending = inFlight.get(host);
+        if (pending != null) {
+            return pending;
+        }
+        CompletableFuture<InetAddress> future = new CompletableFuture<>();
+        pending = inFlight.putIfAbsent(host, future);
+        if (pending != null) {
+            return pending;
+        }
+
+        // Only started once the future is visible, so a fast lookup cannot finish before it is registered
+        try {
+            resolverExecutor.execute(() -> resolve(host, future));
+        } catch (RejectedExecutionException e) {
+            // Shut down; later lookups of this host must not be handed a future nothing will complete
+            inFlight.remove(host, future);
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    private void resolve(String host, CompletableFuture<InetAddress> future) {
+        long startNanos = nanoClock.getAsLong();
+        try {
+            InetAddress address = resolver.resolve(host);
+            long now = nanoClock.getAsLong();
+            lookupLatency.recordNanos(now - startNanos);
+            entries.put(host, new Entry(address, null,
+                    now + (long) (ttlNanos * REFRESH_AHEAD_FRACTION), now + ttlNanos));
+            inFlight.remove(host, future);
+            future.complete(address);
+        } catch (UnknownHostException e) {
+            long now = nanoClock.getAsLong();
+            lookupLatency.recordNanos(now - startNanos);
+            failures.incrementAndGet();
+            // A failed refresh keeps serving the previous answer until it expires
+            Entry previous = entries.get(host);
+            if (previous == null || previous.address() == null || now - previous.expiresAtNanos() >= 0) {
+                entries.put(host, new Entry(null, e, now + negativeTtlNanos, now + negativeTtlNanos));
+            }
+            inFlight.remove(host, future);
+            future.completeExceptionally(e);
+        } catch (RuntimeException e) {
+            inFlight.remove(host, future);
+            future.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * Drops every cached answer.
+     */
+    public void clear() {
+        entries.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * Returns the fraction of resolutions answered from the cache, between 0 and 1.
+     */
+    public double getHitRate() {
+        long h = hits.get();
+        long total = h + misses.get();
+        return total == 0 ? 0 : (double) h / total;
+    }
+
+    /**
+     * Returns the number of background refreshes started before an answer expired.
+     */
+    public long getRefreshes() {
+        return refreshes.get();
+    }
+
+    /**
+     * Returns the number of lookups the resolver could not answer.
+     */
+    public long getFailures() {
+        return failures.get();
+    }
+
+    /**
+     * Returns the time the resolver took for each lookup, successful or not.
+     */
+    public LatencyHistogram getLookupLatency() {
+        return lookupLatency;
+    }
+
+    public void shutdown() {
+        resolverExecutor.shutdownNow();
+        // Lookups still queued were dropped with the pool, so nothing else completes their futures
+        for (Map.Entry<String, CompletableFuture<InetAddress>> pending : inFlight.entrySet()) {
+            inFlight.remove(pending.getKey(), pending.getValue());
+            pending.getValue().completeExceptionally(new RejectedExecutionException("DNS cache shut down"));
+        }
+    }
+}
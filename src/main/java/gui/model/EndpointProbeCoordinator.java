@@ -0,0 +1,139 @@
+package gui.model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Makes servers that share an endpoint share its probes.
+ * Servers are grouped by probe type, normalized host and port. A check for a server is answered
+ * from the endpoint's last result when that result is recent enough, joins a probe already in
+ * flight for the endpoint, or else sends one probe whose result is fanned out to every waiter.
+ */
+public class EndpointProbeCoordinator {
+    private final Map<Endpoint, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicLong cacheHits = new AtomicLong();
+    private final AtomicLong coalescedProbes = new AtomicLong();
+
+    /**
+     * Identity of a probe target, independent of which server it was configured for.
+     */
+    public record Endpoint(Config.ProbeType probeType, String host, int port) {
+        public static Endpoint of(Config config) {
+            String host = config.getHost().trim().toLowerCase(Locale.ROOT);
+            if (host.startsWith("[") && host.endsWith("]")) {
+                host = host.substring(1, host.length() - 1);
+            }
+            return new Endpoint(config.getProbeType(), host, config.getPort());
+        }
+    }
+
+    private static final class Entry {
+        int references;
+        boolean hasResult;
+        boolean online;
+        long roundTripNanos;
+        long probedAtNanos;
+        List<HealthProbe.Callback> waiters;
+    }
+
+    /**
+     * Registers a server's endpoint. Must be balanced by {@link #release(Config)}.
+     */
+    public void retain(Config config) {
+        entries.compute(Endpoint.of(config), (key, entry) -> {
+            Entry e = entry != null ? entry : new Entry();
+            e.references++;
+            return e;
+        });
+    }
+
+    public void release(Config config) {
+        entries.computeIfPresent(Endpoint.of(config), (key, entry) -> --entry.references > 0 ? entry : null);
+    }
+
+    /**
+     * Checks a server, sharing the work with other servers on the same endpoint.
+     * @param server Server to check
+     * @param probe Probe used if a new probe has to be sent
+     * @param maxAgeNanos How old a previous result for the endpoint may be and still be reused
+     * @param callback Receives the result
+     */
+    public void probe(Server server, HealthProbe probe, long maxAgeNanos, HealthProbe.Callback callback) {
+        Entry entry = entries.get(Endpoint.of(server.getConfig()));
+        if (entry == null) {
+            // Not registered, e.g. removed while the check was being scheduled
+            try {
+                probe.probe(server, callback);
+            } catch (RuntimeException e) {
+                callback.onComplete(false, -1);
+            }
+            return;
+        }
+
+        boolean cached;
+        boolean online = false;
+        long roundTripNanos = -1;
+        long now = System.nanoTime();
+        synchronized (entry) {
+            cached = entry.hasResult && now - entry.probedAtNanos < maxAgeNanos;
+            if (cached) {
+                online = entry.online;
+                roundTripNanos = entry.roundTripNanos;
+            } else if (entry.waiters != null) {
+                entry.waiters.add(callback);
+                coalescedProbes.incrementAndGet();
+                return;
+            } else {
+                entry.waiters = new ArrayList<>();
+                entry.waiters.add(callback);
+            }
+        }
+
+        if (cached) {
+            cacheHits.incrementAndGet();
+            callback.onComplete(online, roundTripNanos);
+            return;
+        }
+
+        try {
+            probe.probe(server, (isOnline, rtt) -> complete(entry, now, isOnline, rtt));
+        } catch (RuntimeException e) {
+            // e.g. a host that cannot form a valid URI
+            complete(entry, now, false, -1);
+        }
+    }
+
+    private void complete(Entry entry, long startedAtNanos, boolean online, long roundTripNanos) {
+        List<HealthProbe.Callback> waiters;
+        synchronized (entry) {
+            // Age is measured from when the probe was sent, so a server's next scheduled check is never answered by its own last probe
+            entry.hasResult = true;
+            entry.online = online;
+            entry.roundTripNanos = roundTripNanos;
+            entry.probedAtNanos = startedAtNanos;
+            waiters = entry.waiters;
+            entry.waiters = null;
+        }
+        for (HealthProbe.Callback waiter : waiters) {
+            waiter.onComplete(online, roundTripNanos);
+        }
+    }
+
+    /**
+     * Returns how many checks were answered from a recent result without probing.
+     */
+    public long getCacheHits() {
+        return cacheHits.get();
+    }
+
+    /**
+     * Returns how many checks joined a probe already in flight for the same endpoint.
+     */
+    public long getCoalescedProbes() {
+        return coalescedProbes.get();
+    }
+}
@@ -0,0 +1,32 @@
+package gui.model;
+
+/**
+ * A way of checking whether a server is up. Implementations must not block the calling thread,
+ * which is the health check scheduler, and must eventually invoke the callback exactly once per probe.
+ */
+public interface HealthProbe {
+
+    /**
+     * Receives the outcome of a single probe.
+     */
+    interface Callback {
+        /**
+         * @param online Whether the server is considered up
+         * @param roundTripNanos Time until the server answered, or -1 if it never answered
+         */
+        void onComplete(boolean online, long roundTripNanos);
+    }
+
+    void probe(Server server, Callback callback);
+
+    /**
+     * Drops anything cached for a server that is no longer checked.
+     */
+    default void forget(Id serverId) {
+    }
+
+    /**
+     * Releases threads and sockets held by this probe. Outstanding probes may never complete.
+     */
+    void shutdown();
+}
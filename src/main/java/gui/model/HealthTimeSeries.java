@@ -0,0 +1,378 @@
+package gui.model;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compressed in-memory history of a server's health checks: timestamp, latency and status per check.
+ * Samples are bit-packed into a fixed ring of blocks of primitive longs, Gorilla style:
+ * timestamps as delta-of-delta seconds, which is a single bit for checks on a steady interval,
+ * latency as the XOR against the previous value with a reusable leading/trailing-zero window,
+ * and status as one bit unless it changed. A check on a steady server costs about one byte,
+ * so the default 24 blocks of 512 bytes hold well over a day of 10 second checks.
+ * When the ring is full the oldest block is overwritten.
+ */
+public class HealthTimeSeries {
+    public static final int DEFAULT_BLOCK_COUNT = 24;
+    private static final int BLOCK_WORDS = 64;
+    private static final int BLOCK_BITS = BLOCK_WORDS * Long.SIZE;
+    // Largest encoding of one sample: 36 timestamp bits, 3 status bits and 44 latency bits
+    private static final int MAX_SAMPLE_BITS = 83;
+    private static final Server.Status[] STATUSES = Server.Status.values();
+
+    /**
+     * Receives decoded samples without boxing.
+     */
+    public interface SampleVisitor {
+        /**
+         * @param epochSecond When the check completed
+         * @param latencyMillis Round-trip time, or -1 if the server did not answer
+         * @param status Status the check produced
+         */
+        void visit(long epochSecond, int latencyMillis, Server.Status status);
+    }
+
+    /**
+     * Aggregate of the checks that fell into one downsampling bucket.
+     */
+    public static final class Summary {
+        private final long startEpochSecond;
+        private int checks;
+        private int online;
+        private int answered;
+        private long latencySumMillis;
+        private int maxLatencyMillis;
+
+        private Summary(long startEpochSecond) {
+            this.startEpochSecond = startEpochSecond;
+        }
+
+        private void add(int latencyMillis, Server.Status status) {
+            checks++;
+            if (status == Server.Status.ONLINE) {
+                online++;
+            }
+            if (latencyMillis >= 0) {
+                answered++;
+                latencySumMillis += latencyMillis;
+                maxLatencyMillis = Math.max(maxLatencyMillis, latencyMillis);
+            }
+        }
+
+        public long getStartEpochSecond() {
+            return startEpochSecond;
+        }
+
+        public int getChecks() {
+            return checks;
+        }
+
+        public int getOnlineChecks() {
+            return online;
+        }
+
+        /**
+         * Returns the average latency of answered checks, or -1 if none were answered.
+         */
+        public double getAverageLatencyMillis() {
+            return answered == 0 ? -1 : (double) latencySumMillis / answered;
+        }
+
+        public int getMaxLatencyMillis() {
+            return maxLatencyMillis;
+        }
+    }
+
+    private static final class Block {
+        final long[] words = new long[BLOCK_WORDS];
+        int bitPosition;
+        int count;
+        long firstTimestamp;
+        int firstValue;
+        int firstStatus;
+        long lastTimestamp;
+
+        // Encoder state after the last sample
+        long previousTimestamp;
+        long previousDelta;
+        int previousValue;
+        int previousStatus;
+        int previousLeading;
+        int previousTrailing;
+
+        void start(long timestamp, int value, int status) {
+            Arrays.fill(words, 0);
+            bitPosition = 0;
+            count = 1;
+            firstTimestamp = lastTimestamp = previousTimestamp = timestamp;
+            firstValue = previousValue = value;
+            firstStatus = previousStatus = status;
+            previousDelta = 0;
+            previousLeading = -1;
+            previousTrailing = 0;
+        }
+
+        void writeBits(long value, int bits) {
+            for (int remaining = bits; remaining > 0; ) {
+                int word = bitPosition >>> 6;
+                int offset = bitPosition & 63;
+                int chunk = Math.min(remaining, 64 - offset);
+                long part = (value >>> (remaining - chunk)) & (chunk == 64 ? -1L : (1L << chunk) - 1);
+                words[word] |= part << (64 - offset - chunk);
+                bitPosition += chunk;
+                remaining -= chunk;
+            }
+        }
+    }
+
+    private static final class Reader {
+        final long[] words;
+        int bitPosition;
+
+        Reader(long[] words) {
+            this.words = words;
+        }
+
+        long readBits(int bits) {
+            long value = 0;
+            for (int remaining = bits; remaining > 0; ) {
+                int word = bitPosition >>> 6;
+                int offset = bitPosition & 63;
+                int chunk = Math.min(remaining, 64 - offset);
+                long part = (words[word] >>> (64 - offset - chunk)) & (chunk == 64 ? -1L : (1L << chunk) - 1);
+                value = (value << chunk) | part;
+                bitPosition += chunk;
+                remaining -= chunk;
+            }
+            return value;
+        }
+
+        boolean readBit() {
+            return readBits(1) != 0;
+        }
+    }
+
+    private final Block[] blocks;
+    private int newest = -1;
+    private int used;
+
+    public HealthTimeSeries() {
+        this(DEFAULT_BLOCK_COUNT);
+    }
+
+    /**
+     * @param blockCount Number of 512 byte blocks kept, which bounds the memory used
+     */
+    public HealthTimeSeries(int blockCount) {
+        this.blocks = new Block[blockCount];
+    }
+
+    /**
+     * Appends a check result. Timestamps are expected to be non-decreasing.
+     * @param epochSecond When the check completed
+     * @param latencyMillis Round-trip time, or -1 if the server did not answer
+     * @param status Status the check produced
+     */
+    public synchronized void record(long epochSecond, int latencyMillis, Server.Status status) {
+        // Latency is stored shifted by one so that "no answer" encodes as zero
+        int value = latencyMillis < 0 ? 0 : (int) Math.min(Integer.MAX_VALUE, latencyMillis + 1L);
+        int statusCode = status.ordinal();
+
+        Block block = newest >= 0 ? blocks[newest] : null;
+        if (block == null || block.bitPosition + MAX_SAMPLE_BITS > BLOCK_BITS) {
+            newest = (newest + 1) % blocks.length;
+            if (blocks[newest] == null) {
+                blocks[newest] = new Block();
+                used++;
+            }
+            blocks[newest].start(epochSecond, value, statusCode);
+            return;
+        }
+
+        writeTimestamp(block, epochSecond);
+        writeStatus(block, statusCode);
+        writeValue(block, value);
+        block.count++;
+        block.lastTimestamp = epochSecond;
+    }
+
+    /**
+     * Appends a check result with its round-trip time in nanoseconds, or -1 if the server did not answer.
+     */
+    public void recordNanos(long epochSecond, long roundTripNanos, Server.Status status) {
+        int latencyMillis = roundTripNanos < 0 ? -1 : (int) Math.min(Integer.MAX_VALUE - 1, TimeUnit.NANOSECONDS.toMillis(roundTripNanos));
+        record(epochSecond, latencyMillis, status);
+    }
+
+    private static void writeTimestamp(Block block, long timestamp) {
+        long delta = timestamp - block.previousTimestamp;
+        long deltaOfDelta = delta - block.previousDelta;
+        if (deltaOfDelta == 0) {
+            block.writeBits(0b0, 1);
+        } else if (deltaOfDelta >= -64 && deltaOfDelta <= 63) {
+            block.writeBits(0b10, 2);
+            block.writeBits(deltaOfDelta, 7);
+        } else if (deltaOfDelta >= -256 && deltaOfDelta <= 255) {
+            block.writeBits(0b110, 3);
+            block.writeBits(deltaOfDelta, 9);
+        } else if (deltaOfDelta >= -2048 && deltaOfDelta <= 2047) {
+            block.writeBits(0b1110, 4);
+            block.writeBits(deltaOfDelta, 12);
+        } else {
+            block.writeBits(0b1111, 4);
+            block.writeBits(Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, deltaOfDelta)), 32);
+        }
+        block.previousDelta = delta;
+        block.previousTimestamp = timestamp;
+    }
+
+    private static void writeStatus(Block block, int status) {
+        if (status == block.previousStatus) {
+            block.writeBits(0b0, 1);
+        } else {
+            block.writeBits(0b1, 1);
+            block.writeBits(status, 2);
+            block.previousStatus = status;
+        }
+    }
+
+    private static void writeValue(Block block, int value) {
+        int xor = value ^ block.previousValue;
+        block.previousValue = value;
+        if (xor == 0) {
+            block.writeBits(0b0, 1);
+            return;
+        }
+
+        int leading = Math.min(31, Integer.numberOfLeadingZeros(xor));
+        int trailing = Integer.numberOfTrailingZeros(xor);
+        if (block.previousLeading >= 0 && leading >= block.previousLeading && trailing >= block.previousTrailing) {
+            // Meaningful bits fit inside the previous window
+            int significant = 32 - block.previousLeading - block.previousTrailing;
+            block.writeBits(0b10, 2);
+            block.writeBits(xor >>> block.previousTrailing, significant);
+        } else {
+            int significant = 32 - leading - trailing;
+            block.writeBits(0b11, 2);
+            block.writeBits(leading, 5);
+            block.writeBits(significant - 1, 5);
+            block.writeBits(xor >>> trailing, significant);
+            block.previousLeading = leading;
+            block.previousTrailing = trailing;
+        }
+    }
+
+    /**
+     * Visits every sample between two instants, oldest first.
+     * @param fromEpochSecond Start of the range, inclusive
+     * @param toEpochSecond End of the range, inclusive
+     */
+    public synchronized void forEach(long fromEpochSecond, long toEpochSecond, SampleVisitor visitor) {
+        for (int i = 0; i < used; i++) {
+            Block block = blocks[(newest - used + 1 + i + blocks.length) % blocks.length];
+            if (block.lastTimestamp < fromEpochSecond || block.firstTimestamp > toEpochSecond) {
+                continue;
+            }
+            decode(block, fromEpochSecond, toEpochSecond, visitor);
+        }
+    }
+
+    private static void decode(Block block, long from, long to, SampleVisitor visitor) {
+        long timestamp = block.firstTimestamp;
+        long delta = 0;
+        int value = block.firstValue;
+        int status = block.firstStatus;
+        int leading = -1;
+        int trailing = 0;
+        Reader reader = new Reader(block.words);
+
+        for (int n = 0; n < block.count; n++) {
+            if (n > 0) {
+                // Timestamp
+                long deltaOfDelta;
+                if (!reader.readBit()) {
+                    deltaOfDelta = 0;
+                } else if (!reader.readBit()) {
+                    deltaOfDelta = signExtend(reader.readBits(7), 7);
+                } else if (!reader.readBit()) {
+                    deltaOfDelta = signExtend(reader.readBits(9), 9);
+                } else if (!reader.readBit()) {
+                    deltaOfDelta = signExtend(reader.readBits(12), 12);
+                } else {
+                    deltaOfDelta = signExtend(reader.readBits(32), 32);
+                }
+                delta += deltaOfDelta;
+                timestamp += delta;
+
+                // Status
+                if (reader.readBit()) {
+                    status = (int) reader.readBits(2);
+                }
+
+                // Latency
+                if (reader.readBit()) {
+                    if (!reader.readBit()) {
+                        int significant = 32 - leading - trailing;
+                        value ^= (int) reader.readBits(significant) << trailing;
+                    } else {
+                        leading = (int) reader.readBits(5);
+                        int significant = (int) reader.readBits(5) + 1;
+                        trailing = 32 - leading - significant;
+                        value ^= (int) reader.readBits(significant) << trailing;
+                    }
+                }
+            }
+
+            if (timestamp > to) {
+                return;
+            }
+            if (timestamp >= from) {
+                visitor.visit(timestamp, value - 1, STATUSES[status]);
+            }
+        }
+    }
+
+    private static long signExtend(long value, int bits) {
+        int shift = 64 - bits;
+        return (value << shift) >> shift;
+    }
+
+    /**
+     * Aggregates a time range into equally sized buckets, e.g. 24 hourly summaries for the last day.
+     * @param fromEpochSecond Start of the range, inclusive
+     * @param toEpochSecond End of the range, exclusive
+     * @param bucketCount Number of buckets to split the range into
+     */
+    public Summary[] downsample(long fromEpochSecond, long toEpochSecond, int bucketCount) {
+        Summary[] summaries = new Summary[bucketCount];
+        long span = Math.max(1, toEpochSecond - fromEpochSecond);
+        for (int i = 0; i < bucketCount; i++) {
+            summaries[i] = new Summary(fromEpochSecond + span * i / bucketCount);
+        }
+        forEach(fromEpochSecond, toEpochSecond - 1, (epochSecond, latencyMillis, status) -> {
+            int bucket = (int) ((epochSecond - fromEpochSecond) * bucketCount / span);
+            summaries[bucket].add(latencyMillis, status);
+        });
+        return summaries;
+    }
+
+    /**
+     * Returns the number of samples currently held.
+     */
+    public synchronized int size() {
+        int total = 0;
+        for (Block block : blocks) {
+            if (block != null) {
+                total += block.count;
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Returns the bytes used by sample storage, which never exceeds the configured block count times 512.
+     */
+    public synchronized int getStorageBytes() {
+        return used * BLOCK_WORDS * Long.BYTES;
+    }
+}
@@ -0,0 +1,192 @@
+package gui.model;
+
+import java.net.InetAddress;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Checks a server by sending GET or HEAD /health and treating any 2xx answer as online.
+ * Host names are resolved through a {@link DnsCache} and the request is sent to the resolved
+ * address with the configured name in the Host header, so probes never wait on the resolver
+ * for a cached host. Requests are immutable, so one is built per server and reused for every
+ * probe until the server's address changes. All probes share one client whose connection pool
+ * keeps HTTP/1.1 connections alive between probes and upgrades to HTTP/2 where the server allows it.
+ */
+public class HttpHealthProbe implements HealthProbe {
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(2);
+    private static final String ALLOW_RESTRICTED_HEADERS = "jdk.httpclient.allowRestrictedHeaders";
+
+    private final ServerManager.ProbeEngine probeEngine;
+    private final ExecutorService probeExecutor;
+    private final HttpClient httpClient;
+    private final DnsCache dnsCache;
+    private final Map<Id, RequestTemplate> requestTemplates = new ConcurrentHashMap<>();
+    // Cleared if the HTTP client was initialized before the Host header could be allowed
+    private volatile boolean hostHeaderAllowed = true;
+
+    private record RequestTemplate(String host, int port, Config.ProbeType probeType, InetAddress address,
+                                   HttpRequest request) {
+        boolean matches(Config config, InetAddress resolved) {
+            return port == config.getPort() && probeType == config.getProbeType() && host.equals(config.getHost())
+                    && address.equals(resolved);
+        }
+    }
+
+    public HttpHealthProbe(ServerManager.ProbeEngine probeEngine) {
+        this(probeEngine, new DnsCache());
+    }
+
+    public HttpHealthProbe(ServerManager.ProbeEngine probeEngine, DnsCache dnsCache) {
+        this.probeEngine = probeEngine;
+        this.dnsCache = dnsCache;
+
+        if (probeEngine == ServerManager.ProbeEngine.VIRTUAL) {
+            probeExecutor = Executors.newVirtualThreadPerTaskExecutor();
+        } else {
+            probeExecutor = Executors.newCachedThreadPool();
+        }
+
+        // Create a shared HttpClient instance for all health checks
+        httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(probeExecutor)
+                .build();
+    }
+
+    @Override
+    public void probe(Server server, Callback callback) {
+        // Completes inline when the address is cached
+        dnsCache.resolveAsync(server.getConfig().getHost()).whenComplete((address, ex) -> {
+            if (ex != null) {
+                callback.onComplete(false, -1);
+                return;
+            }
+            HttpRequest request;
+            try {
+                request = getHealthRequest(server, address);
+            } catch (RuntimeException e) {
+                callback.onComplete(false, -1);
+                return;
+            }
+            send(request, callback);
+        });
+    }
+
+    private void send(HttpRequest request, Callback callback) {
+        if (probeEngine == ServerManager.ProbeEngine.VIRTUAL) {
+            // Block a virtual thread per probe instead of chaining completion stages
+            probeExecutor.execute(() -> {
+                long startNanos = System.nanoTime();
+                HttpResponse<Void> response;
+                try {
+                    response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    response = null;
+                } catch (Exception e) {
+                    response = null;
+                }
+                complete(callback, response, System.nanoTime() - startNanos);
+            });
+            return;
+        }
+
+        // Send the request asynchronously
+        long startNanos = System.nanoTime();
+        httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                .handle((response, ex) -> {
+                    complete(callback, response, System.nanoTime() - startNanos);
+                    return null;
+                });
+    }
+
+    private HttpRequest getHealthRequest(Server server, InetAddress address) {
+        Config config = server.getConfig();
+        RequestTemplate template = requestTemplates.get(server.getId());
+        if (template == null || !template.matches(config, address)) {
+            template = new RequestTemplate(config.getHost(), config.getPort(), config.getProbeType(), address,
+                    createHealthRequest(config, address));
+            requestTemplates.put(server.getId(), template);
+        }
+        return template.request();
+    }
+
+    private HttpRequest createHealthRequest(Config config, InetAddress address) {
+        String literal = address.getHostAddress();
+        boolean byAddress = hostHeaderAllowed && !literal.equalsIgnoreCase(config.getHost());
+
+        // Create URL for the server health check
+        URI uri;
+        try {
+            uri = new URI("http", null, byAddress ? literal : config.getHost(), config.getPort(), "/health", null, null);
+        } catch (URISyntaxException e) {
+            throw new IllegalArgumentException("Invalid health check address for " + config.getName(), e);
+        }
+
+        // Create an HTTP request with a timeout
+        HttpRequest.Builder builder = HttpRequest.newBuilder(uri).timeout(REQUEST_TIMEOUT);
+        if (config.getProbeType() == Config.ProbeType.HTTP_HEAD) {
+            builder.HEAD();
+        } else {
+            builder.GET();
+        }
+        if (byAddress) {
+            try {
+                builder.header("Host", hostHeader(config));
+            } catch (IllegalArgumentException e) {
+                // The client refused the header; fall back to letting it resolve names itself
+                hostHeaderAllowed = false;
+                return createHealthRequest(config, address);
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Lets HTTP clients set the Host header, which probes need to send requests to a cached address.
+     * This is a JVM-wide setting that the JDK reads once, when its HTTP client is first used, so an application
+     * calls this at startup before anything sends an HTTP request. Without it probes let the client resolve names.
+     */
+    public static void allowHostHeader() {
+        String allowed = System.getProperty(ALLOW_RESTRICTED_HEADERS, "");
+        if (!allowed.toLowerCase().contains("host")) {
+            System.setProperty(ALLOW_RESTRICTED_HEADERS, allowed.isEmpty() ? "host" : allowed + ",host");
+        }
+    }
+
+    private static String hostHeader(Config config) {
+        String host = config.getHost();
+        if (host.indexOf(':') >= 0 && !host.startsWith("[")) {
+            host = "[" + host + "]";
+        }
+        return config.getPort() == 80 ? host : host + ":" + config.getPort();
+    }
+
+    @Override
+    public void forget(Id serverId) {
+        requestTemplates.remove(serverId);
+    }
+
+    private void complete(Callback callback, HttpResponse<Void> response, long elapsedNanos) {
+        if (response == null) {
+            callback.onComplete(false, -1);
+            return;
+        }
+        boolean isOnline = response.statusCode() >= 200 && response.statusCode() < 300;
+        callback.onComplete(isOnline, elapsedNanos);
+    }
+
+    @Override
+    public void shutdown() {
+        // Abandon probes that are still waiting on a response
+        probeExecutor.shutdownNow();
+    }
+}
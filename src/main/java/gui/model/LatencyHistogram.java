@@ -0,0 +1,127 @@
+package gui.model;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fixed-size log-linear histogram of probe round-trip times in microseconds.
+ * Each power of two is split into 16 linear sub-buckets, which keeps the reported percentiles
+ * within about 6% of the recorded value. Recording never allocates and is safe from any thread;
+ * values above about 8 seconds are clamped into the last bucket.
+ */
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int MAX_EXPONENT = 23; // 2^23 us is roughly 8.4 seconds
+    private static final long MAX_TRACKABLE_MICROS = (1L << (MAX_EXPONENT + 1)) - 1;
+    private static final int BUCKET_COUNT = SUB_BUCKET_COUNT + (MAX_EXPONENT - SUB_BUCKET_BITS + 1) * SUB_BUCKET_COUNT;
+
+    private final AtomicIntegerArray counts = new AtomicIntegerArray(BUCKET_COUNT);
+    private final AtomicLong totalCount = new AtomicLong();
+    private final AtomicLong maxMicros = new AtomicLong();
+    private final AtomicLong sumMicros = new AtomicLong();
+
+    /**
+     * Records a single round-trip time.
+     * @param nanos Elapsed time in nanoseconds
+     */
+    public void recordNanos(long nanos) {
+        long micros = Math.max(0, TimeUnit.NANOSECONDS.toMicros(nanos));
+        counts.incrementAndGet(bucketIndex(Math.min(micros, MAX_TRACKABLE_MICROS)));
+        totalCount.incrementAndGet();
+        sumMicros.addAndGet(micros);
+
+        long max = maxMicros.get();
+        while (micros > max && !maxMicros.compareAndSet(max, micros)) {
+            max = maxMicros.get();
+        }
+    }
+
+    public long getTotalCount() {
+        return totalCount.get();
+    }
+
+    /**
+     * Returns the sum of all values recorded, in microseconds.
+     */
+    public long getSumMicros() {
+        return sumMicros.get();
+    }
+
+    /**
+     * Returns the largest value recorded, in microseconds, or 0 if nothing was recorded.
+     */
+    public long getMaxMicros() {
+        return maxMicros.get();
+    }
+
+    /**
+     * Returns the value at the given percentile, in microseconds, or 0 if nothing was recorded.
+     * @param percentile Percentile between 0 and 100
+     */
+    public long getPercentileMicros(double percentile) {
+        long total = totalCount.get();
+        if (total == 0) {
+            return 0;
+        }
+        long target = Math.max(1, (long) Math.ceil(total * (percentile / 100.0)));
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += counts.get(i);
+            if (seen >= target) {
+                return Math.min(highestEquivalentValue(i), getMaxMicros());
+            }
+        }
+        return getMaxMicros();
+    }
+
+    /**
+     * Looks up several percentiles in one pass over the buckets.
+     * @param percentiles Percentiles between 0 and 100, in ascending order
+     * @param micros Receives the value at each percentile, in microseconds, or 0 if nothing was recorded
+     */
+    public void getPercentilesMicros(double[] percentiles, long[] micros) {
+        long total = totalCount.get();
+        long max = getMaxMicros();
+        int next = 0;
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT && next < percentiles.length && total > 0; i++) {
+            seen += counts.get(i);
+            while (next < percentiles.length && seen >= Math.max(1, (long) Math.ceil(total * (percentiles[next] / 100.0)))) {
+                micros[next++] = Math.min(highestEquivalentValue(i), max);
+            }
+        }
+        while (next < percentiles.length) {
+            micros[next++] = total == 0 ? 0 : max;
+        }
+    }
+
+    public void reset() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts.set(i, 0);
+        }
+        totalCount.set(0);
+        maxMicros.set(0);
+        sumMicros.set(0);
+    }
+
+    private static int bucketIndex(long micros) {
+        if (micros < SUB_BUCKET_COUNT) {
+            return (int) micros;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(micros);
+        int shift = exponent - SUB_BUCKET_BITS;
+        int subBucket = (int) (micros >>> shift) - SUB_BUCKET_COUNT;
+        return SUB_BUCKET_COUNT + shift * SUB_BUCKET_COUNT + subBucket;
+    }
+
+    private static long highestEquivalentValue(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int shift = (index - SUB_BUCKET_COUNT) / SUB_BUCKET_COUNT;
+        int subBucket = (index - SUB_BUCKET_COUNT) % SUB_BUCKET_COUNT;
+        return ((long) (SUB_BUCKET_COUNT + subBucket + 1) << shift) - 1;
+    }
+}
@@ -0,0 +1,310 @@
+package gui.model;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Optional HTTP endpoint that exports the fleet's health in the Prometheus text format at /metrics.
+ * Per-server series are rendered from label sets encoded once per server and numbers written
+ * straight into a reusable byte buffer, so a scrape of tens of thousands of series does not
+ * build any strings. Scrapes are served one at a time.
+ */
+public class MetricsServer {
+    public static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+    private static final double[] QUANTILES = {50, 90, 99};
+    private static final byte[][] QUANTILE_LABELS = {
+            ascii(",quantile=\"0.5\"} "), ascii(",quantile=\"0.9\"} "), ascii(",quantile=\"0.99\"} ")
+    };
+    private static final byte[] CLOSE_LABELS = ascii("} ");
+    private static final byte[] NAN = ascii("NaN");
+
+    private final ServerManager serverManager;
+    private final ConfigFileManager configFileManager;
+    private final HttpServer httpServer;
+    private final Map<Server, byte[]> encodedLabels = new ConcurrentHashMap<>();
+    private final long[] quantileMicros = new long[QUANTILES.length];
+    private byte[] buffer = new byte[64 * 1024];
+    private int length;
+
+    /**
+     * @param serverManager Source of the server and probe metrics
+     * @param configFileManager Source of the save metrics, or null if saves are not reported
+     * @param port Port to listen on, or 0 for any free port
+     */
+    public MetricsServer(ServerManager serverManager, ConfigFileManager configFileManager, int port) throws IOException {
+        this.serverManager = serverManager;
+        this.configFileManager = configFileManager;
+        this.httpServer = HttpServer.create(new InetSocketAddress(port), 0);
+        httpServer.createContext("/metrics", this::handle);
+
+        // Removed servers must not keep their label sets alive, and renamed or moved ones need new ones
+        serverManager.addPropertyChangeListener(ServerManager.PROP_SERVER_REMOVED, evt -> {
+            if (evt.getOldValue() instanceof Server server) {
+                encodedLabels.remove(server);
+            }
+        });
+        serverManager.addPropertyChangeListener(ServerManager.PROP_SERVER_UPDATED, evt -> {
+            if (evt.getNewValue() instanceof Server server) {
+                encodedLabels.remove(server);
+            }
+        });
+    }
+
+    public void start() {
+        httpServer.start();
+        System.out.println("Serving metrics on http://localhost:" + getPort() + "/metrics");
+    }
+
+    public int getPort() {
+        return httpServer.getAddress().getPort();
+    }
+
+    public void stop() {
+        httpServer.stop(0);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            synchronized (this) {
+                render();
+                exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+                exchange.sendResponseHeaders(200, length);
+                try (OutputStream body = exchange.getResponseBody()) {
+                    body.write(buffer, 0, length);
+                }
+            }
+        }
+    }
+
+    /**
+     * Renders the current metrics in the Prometheus text format.
+     */
+    public synchronized byte[] scrape() {
+        render();
+        return Arrays.copyOf(buffer, length);
+    }
+
+    private void render() {
+        length = 0;
+        List<Server> servers = serverManager.getAllServers();
+
+        family("server_manager_server_up", "gauge", "Whether the last health check found the server online; NaN until it was checked");
+        for (Server server : servers) {
+            series("server_manager_server_up", server);
+            switch (server.getStatus()) {
+                case ONLINE -> writeLong(1);
+                case OFFLINE -> writeLong(0);
+                default -> write(NAN);
+            }
+            newline();
+        }
+
+        family("server_manager_probe_errors_total", "counter", "Health check probes that found the server offline");
+        for (Server server : servers) {
+            series("server_manager_probe_errors_total", server);
+            writeLong(server.getProbeFailures());
+            newline();
+        }
+
+        family("server_manager_probe_latency_seconds", "summary", "Round-trip time of answered health check probes");
+        for (Server server : servers) {
+            LatencyHistogram latency = server.getLatencyHistogram();
+            latency.getPercentilesMicros(QUANTILES, quantileMicros);
+            for (int i = 0; i < QUANTILES.length; i++) {
+                writeAscii("server_manager_probe_latency_seconds");
+                write(labels(server));
+                write(QUANTILE_LABELS[i]);
+                writeQuantile(latency, quantileMicros[i]);
+                newline();
+            }
+            series("server_manager_probe_latency_seconds_sum", server);
+            writeSeconds(latency.getSumMicros());
+            newline();
+            series("server_manager_probe_latency_seconds_count", server);
+            writeLong(latency.getTotalCount());
+            newline();
+        }
+
+        gauge("server_manager_servers", "Servers being monitored", servers.size());
+        gauge("server_manager_probes_in_flight", "Health check probes sent but not yet completed", serverManager.getProbesInFlight());
+        counter("server_manager_probes_completed_total", "Health check probes completed", serverManager.getProbesCompleted());
+        counter("server_manager_probes_skipped_total", "Scheduled checks skipped by an open circuit breaker", serverManager.getProbesSkipped());
+        counter("server_manager_probes_deduplicated_total", "Checks answered by a probe shared with another server", serverManager.getProbesDeduplicated());
+
+        family("server_manager_scheduler_lag_seconds", "gauge", "How late the health check scheduler started its last tick");
+        writeAscii("server_manager_scheduler_lag_seconds ");
+        writeSeconds(serverManager.getSchedulerLagNanos() / 1000);
+        newline();
+
+        DnsCache dnsCache = serverManager.getDnsCache();
+        counter("server_manager_dns_cache_hits_total", "Host name resolutions answered from the cache", dnsCache.getHits());
+        counter("server_manager_dns_cache_misses_total", "Host name resolutions that had to query the resolver", dnsCache.getMisses());
+
+        if (configFileManager != null) {
+            LatencyHistogram saves = configFileManager.getSaveLatency();
+            family("server_manager_config_save_duration_seconds", "summary", "Time taken to save the server configurations");
+            saves.getPercentilesMicros(QUANTILES, quantileMicros);
+            for (int i = 0; i < QUANTILES.length; i++) {
+                writeAscii("server_manager_config_save_duration_seconds{");
+                // Skip the leading comma of the shared quantile label
+                write(QUANTILE_LABELS[i], 1);
+                writeQuantile(saves, quantileMicros[i]);
+                newline();
+            }
+            writeAscii("server_manager_config_save_duration_seconds_sum ");
+            writeSeconds(saves.getSumMicros());
+            newline();
+            writeAscii("server_manager_config_save_duration_seconds_count ");
+            writeLong(saves.getTotalCount());
+            newline();
+        }
+    }
+
+    private byte[] labels(Server server) {
+        return encodedLabels.computeIfAbsent(server, s -> {
+            StringBuilder labels = new StringBuilder("{id=\"");
+            escape(labels, s.getId().getId());
+            labels.append("\",name=\"");
+            escape(labels, s.getConfig().getName());
+            labels.append("\",address=\"");
+            escape(labels, s.getConfig().getHost() + ":" + s.getConfig().getPort());
+            labels.append('"');
+            return labels.toString().getBytes(StandardCharsets.UTF_8);
+        });
+    }
+
+    private static void escape(StringBuilder out, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\\' -> out.append("\\\\");
+                case '"' -> out.append("\\\"");
+                case '\n' -> out.append("\\n");
+                default -> out.append(c);
+            }
+        }
+    }
+
+    private void family(String name, String type, String help) {
+        writeAscii("# HELP ");
+        writeAscii(name);
+        writeAscii(" ");
+        writeAscii(help);
+        writeAscii("\n# TYPE ");
+        writeAscii(name);
+        writeAscii(" ");
+        writeAscii(type);
+        newline();
+    }
+
+    private void series(String name, Server server) {
+        writeAscii(name);
+        write(labels(server));
+        write(CLOSE_LABELS);
+    }
+
+    private void gauge(String name, String help, long value) {
+        family(name, "gauge", help);
+        writeAscii(name);
+        writeAscii(" ");
+        writeLong(value);
+        newline();
+    }
+
+    private void counter(String name, String help, long value) {
+        family(name, "counter", help);
+        writeAscii(name);
+        writeAscii(" ");
+        writeLong(value);
+        newline();
+    }
+
+    private void ensureCapacity(int extra) {
+        if (length + extra > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, length + extra));
+        }
+    }
+
+    private void write(byte[] bytes) {
+        write(bytes, 0);
+    }
+
+    private void write(byte[] bytes, int offset) {
+        ensureCapacity(bytes.length - offset);
+        System.arraycopy(bytes, offset, buffer, length, bytes.length - offset);
+        length += bytes.length - offset;
+    }
+
+    // Metric names and help texts are ASCII, so they are copied without encoding
+    private void writeAscii(String text) {
+        ensureCapacity(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            buffer[length++] = (byte) text.charAt(i);
+        }
+    }
+
+    private void newline() {
+        ensureCapacity(1);
+        buffer[length++] = '\n';
+    }
+
+    private void writeLong(long value) {
+        ensureCapacity(20);
+        if (value < 0) {
+            buffer[length++] = '-';
+            value = -value;
+        }
+        int start = length;
+        do {
+            buffer[length++] = (byte) ('0' + value % 10);
+            value /= 10;
+        } while (value > 0);
+        // Digits were written least significant first
+        for (int i = start, j = length - 1; i < j; i++, j--) {
+            byte digit = buffer[i];
+            buffer[i] = buffer[j];
+            buffer[j] = digit;
+        }
+    }
+
+    private void writeSeconds(long micros) {
+        if (micros < 0) {
+            ensureCapacity(1);
+            buffer[length++] = '-';
+            micros = -micros;
+        }
+        writeLong(micros / 1_000_000);
+        ensureCapacity(7);
+        buffer[length++] = '.';
+        long fraction = micros % 1_000_000;
+        for (long divisor = 100_000; divisor > 0; divisor /= 10) {
+            buffer[length++] = (byte) ('0' + fraction / divisor % 10);
+        }
+    }
+
+    // A quantile of no observations is undefined, which Prometheus expects as NaN
+    private void writeQuantile(LatencyHistogram histogram, long micros) {
+        if (histogram.getTotalCount() == 0) {
+            write(NAN);
+        } else {
+            writeSeconds(micros);
+        }
+    }
+
+    private static byte[] ascii(String text) {
+        return text.getBytes(StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,404 @@
+package gui.model;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Append-only on-disk history of probe results, kept so it survives restarts.
+ * Results are written as fixed-width records into segment files mapped into memory, one series
+ * of segments per time bucket (an hour by default), so appends never allocate and scans page in
+ * only the segments that overlap the requested range. Whole segments are deleted once they fall
+ * out of the retention period.
+ *
+ * Segment layout: a 32 byte header (magic, version, record count, oldest and newest timestamp)
+ * followed by 24 byte records (timestamp millis, server key, latency micros, status).
+ *
+ * Only one store can have a directory open at a time, across processes; a second one fails to open.
+ */
+public class ProbeHistoryStore implements Closeable {
+    public static final long DEFAULT_SEGMENT_MILLIS = TimeUnit.HOURS.toMillis(1);
+    public static final long DEFAULT_RETENTION_MILLIS = TimeUnit.DAYS.toMillis(30);
+    public static final int DEFAULT_RECORDS_PER_SEGMENT = 1 << 18;
+    public static final int RECORD_BYTES = 24;
+
+    private static final int MAGIC = 0x50485331; // "PHS1"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 32;
+    private static final int COUNT_OFFSET = 8;
+    private static final int MIN_TIMESTAMP_OFFSET = 16;
+    private static final int MAX_TIMESTAMP_OFFSET = 24;
+    private static final String LOCK_FILE = ".lock";
+    private static final Pattern SEGMENT_NAME = Pattern.compile("probes-(\\d+)-(\\d+)\\.seg");
+    private static final Server.Status[] STATUSES = Server.Status.values();
+
+    /**
+     * Receives stored records without boxing.
+     */
+    public interface RecordVisitor {
+        /**
+         * @param epochMillis When the probe completed
+         * @param serverKey Key of the server, see {@link #keyOf(Id)}
+         * @param latencyMicros Round-trip time, or -1 if the server did not answer
+         * @param status Status the probe produced
+         */
+        void visit(long epochMillis, long serverKey, int latencyMicros, Server.Status status);
+    }
+
+    private record Segment(Path path, long bucketStart, int sequence) {
+    }
+
+    private final Path directory;
+    private final long segmentMillis;
+    private final long retentionMillis;
+    private final int recordsPerSegment;
+    private final List<Segment> segments = new ArrayList<>();
+    private final FileChannel lockChannel;
+    // Flushes full segments to disk, which takes long enough that appends must not wait for it
+    private final ExecutorService flusher = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "probe-history-flusher");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private Segment activeSegment;
+    private MappedByteBuffer activeBuffer;
+    private int activeCount;
+    private int activeCapacity;
+    private long recordsWritten;
+    private long writeFailures;
+    private boolean closed;
+    // Set when no new segment could be created; appends are then dropped and counted as failures
+    private boolean failed;
+
+    public ProbeHistoryStore(Path directory) throws IOException {
+        this(directory, DEFAULT_SEGMENT_MILLIS, DEFAULT_RETENTION_MILLIS, DEFAULT_RECORDS_PER_SEGMENT);
+    }
+
+    /**
+     * @param directory Directory holding the segment files, created if missing
+     * @param segmentMillis Length of the time bucket each segment covers
+     * @param retentionMillis How long records are kept
+     * @param recordsPerSegment Capacity of one segment file; a busy bucket spills into further segments
+     */
+    public ProbeHistoryStore(Path directory, long segmentMillis, long retentionMillis, int recordsPerSegment)
+            throws IOException {
+        if (segmentMillis <= 0 || retentionMillis <= 0 || recordsPerSegment <= 0) {
+            throw new IllegalArgumentException("Segment length, retention and capacity must be positive");
+        }
+        this.directory = directory;
+        this.segmentMillis = segmentMillis;
+        this.retentionMillis = retentionMillis;
+        this.recordsPerSegment = recordsPerSegment;
+
+        Files.createDirectories(directory);
+        lockChannel = lock(directory);
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "probes-*.seg")) {
+            for (Path file : files) {
+                Matcher matcher = SEGMENT_NAME.matcher(file.getFileName().toString());
+                if (matcher.matches()) {
+                    segments.add(new Segment(file, Long.parseLong(matcher.group(1)), Integer.parseInt(matcher.group(2))));
+                }
+            }
+        }
+        segments.sort(Comparator.comparingLong(Segment::bucketStart).thenComparingInt(Segment::sequence));
+        deleteExpired();
+    }
+
+    // Two stores appending to the same directory would pick the same segment names, so the directory is locked
+    private static FileChannel lock(Path directory) throws IOException {
+        FileChannel channel = FileChannel.open(directory.resolve(LOCK_FILE), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE);
+        FileLock lock;
+        try {
+            lock = channel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            lock = null; // Held by another store in this process
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        if (lock == null) {
+            channel.close();
+            throw new IOException("Probe history directory " + directory + " is already open, by this or another process");
+        }
+        return channel;
+    }
+
+    /**
+     * Returns the fixed-width key a server's records are stored under: a 64-bit FNV-1a hash of its id's characters.
+     */
+    public static long keyOf(Id id) {
+        String value = id.getId();
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    /**
+     * Appends a probe result. Write failures are counted and logged once instead of reaching the probe thread.
+     * @param epochMillis When the probe completed
+     * @param id Server the probe was for
+     * @param roundTripNanos Round-trip time, or -1 if the server did not answer
+     * @param status Status the probe produced
+     */
+    public synchronized void append(long epochMillis, Id id, long roundTripNanos, Server.Status status) {
+        if (closed) {
+            return;
+        }
+        if (failed) {
+            writeFailures++;
+            return;
+        }
+        try {
+            long bucketStart = Math.floorDiv(epochMillis, segmentMillis) * segmentMillis;
+            // Late results from the previous bucket stay in the current segment; the header range still covers them
+            if (activeBuffer == null || activeCount == activeCapacity || bucketStart > activeSegment.bucketStart()) {
+                roll(bucketStart);
+            }
+
+            int offset = HEADER_BYTES + activeCount * RECORD_BYTES;
+            int latencyMicros = roundTripNanos < 0 ? -1
+                    : (int) Math.min(Integer.MAX_VALUE, TimeUnit.NANOSECONDS.toMicros(roundTripNanos));
+            activeBuffer.putLong(offset, epochMillis);
+            activeBuffer.putLong(offset + 8, keyOf(id));
+            activeBuffer.putInt(offset + 16, latencyMicros);
+            activeBuffer.put(offset + 20, (byte) status.ordinal());
+
+            // The count is published last, so a crash mid-record leaves the record out rather than half written
+            if (activeCount == 0 || epochMillis < activeBuffer.getLong(MIN_TIMESTAMP_OFFSET)) {
+                activeBuffer.putLong(MIN_TIMESTAMP_OFFSET, epochMillis);
+            }
+            if (epochMillis > activeBuffer.getLong(MAX_TIMESTAMP_OFFSET)) {
+                activeBuffer.putLong(MAX_TIMESTAMP_OFFSET, epochMillis);
+            }
+            activeBuffer.putInt(COUNT_OFFSET, ++activeCount);
+            recordsWritten++;
+        } catch (IOException e) {
+            if (writeFailures++ == 0) {
+                System.err.println("Failed to write probe history: " + e.getMessage());
+            }
+        }
+    }
+
+    private void roll(long bucketStart) throws IOException {
+        MappedByteBuffer retired = activeBuffer;
+        try {
+            open(bucketStart);
+        } catch (IOException e) {
+            // Retrying would fail the same way on every append, so stop writing instead
+            failed = true;
+            activeSegment = null;
+            activeBuffer = null;
+            throw e;
+        } finally {
+            if (retired != null && retired != activeBuffer) {
+                // Nothing writes to the retired segment any more, so it can be flushed without holding the lock
+                flusher.execute(retired::force);
+            }
+        }
+        deleteExpired();
+    }
+
+    // Makes the segment to append to the active one; leaves the active segment as it was if that fails
+    private void open(long bucketStart) throws IOException {
+        // Reopen the newest segment of this bucket if it has room, e.g. after a restart
+        Segment last = segments.isEmpty() ? null : segments.get(segments.size() - 1);
+        if (last != null && bucketStart < last.bucketStart()) {
+            bucketStart = last.bucketStart(); // A late result; segments are only ever added at the end
+        }
+        if (last != null && last != activeSegment && last.bucketStart() == bucketStart) {
+            try {
+                MappedByteBuffer buffer = map(last.path(), FileChannel.MapMode.READ_WRITE);
+                int capacity = (buffer.capacity() - HEADER_BYTES) / RECORD_BYTES;
+                if (capacity > 0 && buffer.getInt(0) == MAGIC && buffer.getInt(COUNT_OFFSET) < capacity) {
+                    activeSegment = last;
+                    activeBuffer = buffer;
+                    activeCount = buffer.getInt(COUNT_OFFSET);
+                    activeCapacity = capacity;
+                    return;
+                }
+            } catch (IOException e) {
+                // Left alone; appends continue in a new segment after it
+                System.err.println("Failed to reopen probe history segment: " + e.getMessage());
+            }
+        }
+
+        int sequence = last != null && last.bucketStart() == bucketStart ? last.sequence() + 1 : 0;
+        MappedByteBuffer buffer = null;
+        Path path = null;
+        while (buffer == null) {
+            path = directory.resolve(String.format("probes-%013d-%04d.seg", bucketStart, sequence));
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES + (long) recordsPerSegment * RECORD_BYTES);
+            } catch (FileAlreadyExistsException e) {
+                sequence++; // Created since the directory was listed; never overwritten
+            } catch (IOException e) {
+                Files.deleteIfExists(path);
+                throw e;
+            }
+        }
+        buffer.putInt(0, MAGIC);
+        buffer.putInt(4, VERSION);
+        buffer.putInt(COUNT_OFFSET, 0);
+        activeSegment = new Segment(path, bucketStart, sequence);
+        activeBuffer = buffer;
+        activeCount = 0;
+        activeCapacity = recordsPerSegment;
+        segments.add(activeSegment);
+    }
+
+    private MappedByteBuffer map(Path path, FileChannel.MapMode mode) throws IOException {
+        StandardOpenOption[] options = mode == FileChannel.MapMode.READ_ONLY
+                ? new StandardOpenOption[]{StandardOpenOption.READ}
+                : new StandardOpenOption[]{StandardOpenOption.READ, StandardOpenOption.WRITE};
+        // The mapping stays valid after the channel is closed
+        try (FileChannel channel = FileChannel.open(path, options)) {
+            return channel.map(mode, 0, channel.size());
+        }
+    }
+
+    /**
+     * Visits every stored record between two instants, in append order within each segment.
+     * @param fromEpochMillis Start of the range, inclusive
+     * @param toEpochMillis End of the range, inclusive
+     */
+    public void scan(long fromEpochMillis, long toEpochMillis, RecordVisitor visitor) throws IOException {
+        List<Segment> candidates;
+        synchronized (this) {
+            candidates = new ArrayList<>(segments);
+        }
+
+        for (Segment segment : candidates) {
+            // No record is newer than its bucket; late records may be older, but by far less than a bucket
+            if (segment.bucketStart() + segmentMillis <= fromEpochMillis
+                    || segment.bucketStart() - segmentMillis > toEpochMillis) {
+                continue;
+            }
+            MappedByteBuffer buffer;
+            try {
+                buffer = map(segment.path(), FileChannel.MapMode.READ_ONLY);
+            } catch (NoSuchFileException e) {
+                continue; // Deleted by retention while scanning
+            }
+            if (buffer.capacity() < HEADER_BYTES || buffer.getInt(0) != MAGIC) {
+                continue;
+            }
+            int count = buffer.getInt(COUNT_OFFSET);
+            if (count == 0 || buffer.getLong(MAX_TIMESTAMP_OFFSET) < fromEpochMillis
+                    || buffer.getLong(MIN_TIMESTAMP_OFFSET) > toEpochMillis) {
+                continue;
+            }
+            for (int i = 0, offset = HEADER_BYTES; i < count; i++, offset += RECORD_BYTES) {
+                long timestamp = buffer.getLong(offset);
+                if (timestamp >= fromEpochMillis && timestamp <= toEpochMillis) {
+                    visitor.visit(timestamp, buffer.getLong(offset + 8), buffer.getInt(offset + 16),
+                            STATUSES[buffer.get(offset + 20)]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Visits the stored records of one server between two instants.
+     */
+    public void scan(Id id, long fromEpochMillis, long toEpochMillis, RecordVisitor visitor) throws IOException {
+        long key = keyOf(id);
+        scan(fromEpochMillis, toEpochMillis, (epochMillis, serverKey, latencyMicros, status) -> {
+            if (serverKey == key) {
+                visitor.visit(epochMillis, serverKey, latencyMicros, status);
+            }
+        });
+    }
+
+    /**
+     * Deletes every segment whose bucket ended before the retention period.
+     * @return Number of segments deleted
+     */
+    public synchronized int deleteExpired() {
+        long cutoff = System.currentTimeMillis() - retentionMillis;
+        int deleted = 0;
+        while (!segments.isEmpty()) {
+            Segment oldest = segments.get(0);
+            if (oldest == activeSegment || oldest.bucketStart() + segmentMillis > cutoff) {
+                break;
+            }
+            try {
+                Files.deleteIfExists(oldest.path());
+            } catch (IOException e) {
+                // Still mapped on platforms that forbid deleting open files; retried on the next roll
+                System.err.println("Failed to delete probe history segment: " + e.getMessage());
+                break;
+            }
+            segments.remove(0);
+            deleted++;
+        }
+        return deleted;
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    public synchronized int getSegmentCount() {
+        return segments.size();
+    }
+
+    /**
+     * Returns the number of records appended since this store was opened.
+     */
+    public synchronized long getRecordsWritten() {
+        return recordsWritten;
+    }
+
+    /**
+     * Returns the number of records that could not be written.
+     */
+    public synchronized long getWriteFailures() {
+        return writeFailures;
+    }
+
+    @Override
+    public void close() {
+        MappedByteBuffer lastBuffer;
+        synchronized (this) {
+            lastBuffer = activeBuffer;
+            activeBuffer = null;
+            closed = true;
+        }
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (lastBuffer != null) {
+            lastBuffer.force();
+        }
+        try {
+            lockChannel.close(); // releases the lock
+        } catch (IOException e) {
+            System.err.println("Failed to release probe history lock: " + e.getMessage());
+        }
+    }
+}
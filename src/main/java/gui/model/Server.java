@@ -2,6 +2,7 @@ package gui.model;
 
 import java.beans.PropertyChangeListener;
 import java.beans.PropertyChangeSupport;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class Server {
     public enum Status {
@@ -12,8 +13,12 @@ public class Server {
     public static final String PROP_STATUS = "status";
 
     private Id id;
-    private Config config;
+    private volatile Config config;
     private Status status;
+    private final LatencyHistogram latencyHistogram = new LatencyHistogram();
+    private final CircuitBreaker circuitBreaker = new CircuitBreaker();
+    private final HealthTimeSeries healthHistory = new HealthTimeSeries();
+    private final AtomicLong probeFailures = new AtomicLong();
     private PropertyChangeSupport pcs;
 
     public Server(Id id, Config config) {
@@ -31,10 +36,47 @@ public class Server {
         return config;
     }
 
+    // Through ServerManager.updateServer, which also reschedules the health check
+    void setConfig(Config config) {
+        this.config = config;
+    }
+
     public Status getStatus() {
         return status;
     }
 
+    /**
+     * Returns the round-trip times of the health check probes answered by this server.
+     */
+    public LatencyHistogram getLatencyHistogram() {
+        return latencyHistogram;
+    }
+
+    /**
+     * Returns the breaker that backs off health checks while this server keeps failing.
+     */
+    public CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    /**
+     * Returns the compressed history of this server's health checks.
+     */
+    public HealthTimeSeries getHealthHistory() {
+        return healthHistory;
+    }
+
+    /**
+     * Returns the number of health check probes that found this server offline.
+     */
+    public long getProbeFailures() {
+        return probeFailures.get();
+    }
+
+    void recordProbeFailure() {
+        probeFailures.incrementAndGet();
+    }
+
     public void setStatus(Status status) {
         Status oldStatus = this.status;
         this.status = status;
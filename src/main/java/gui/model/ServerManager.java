@@ -2,50 +2,143 @@ package gui.model;
 
 import java.beans.PropertyChangeListener;
 import java.beans.PropertyChangeSupport;
-import java.net.URI;
-import java.net.http.HttpClient;
-import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
-import java.time.Duration;
-import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.EnumMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class ServerManager {
+    /**
+     * How HTTP health check probes are executed.
+     * PLATFORM sends probes asynchronously and completes them on a cached platform thread pool.
+     * VIRTUAL runs every probe as a blocking request on its own virtual thread, so tens of
+     * thousands of probes can be in flight while only a handful of carrier threads exist.
+     */
+    public enum ProbeEngine {
+        PLATFORM, VIRTUAL
+    }
+
     // Property change constants
     public static final String PROP_SERVER_ADDED = "serverAdded";
     public static final String PROP_SERVER_REMOVED = "serverRemoved";
+    /**
+     * A server's configuration changed in place; the old value is its previous {@link Config}, the new value the server.
+     */
+    public static final String PROP_SERVER_UPDATED = "serverUpdated";
     public static final String PROP_SELECTED_SERVER = "selectedServer";
     public static final String PROP_SERVER_STATUS_CHANGED = "serverStatusChanged";
 
-    private Map<Id, Server> servers;
-    private Map<Id, ScheduledFuture<?>> healthCheckTasks;
-    private Server selectedServer;
-    private ScheduledExecutorService healthCheckExecutor;
-    private HttpClient httpClient;
+    // How old a shared endpoint result may be when a check is requested on demand
+    public static final long ON_DEMAND_MAX_AGE_MILLIS = 2000;
+
+    private ServerRegistry servers;
+    private Map<Id, TimingWheel.Task> healthCheckTasks;
+    private volatile Server selectedServer;
+    private TimingWheel healthCheckScheduler;
+    private Map<Config.ProbeType, HealthProbe> probes;
+    private EndpointProbeCoordinator endpointProbes;
+    private DnsCache dnsCache;
+    private volatile ProbeHistoryStore probeHistoryStore;
     private PropertyChangeSupport pcs;
-    private boolean batchOperation = false;
+    private volatile boolean batchOperation = false;
+    private final ProbeEngine probeEngine;
+    private final AtomicInteger probesInFlight = new AtomicInteger();
+    private final AtomicLong probesCompleted = new AtomicLong();
+    private final AtomicLong probesSkipped = new AtomicLong();
 
     public ServerManager() {
-        servers = new HashMap<>();
-        healthCheckTasks = new HashMap<>();
+        this(ProbeEngine.PLATFORM);
+    }
+
+    public ServerManager(ProbeEngine probeEngine) {
+        this.probeEngine = probeEngine;
+        servers = new ServerRegistry();
+        healthCheckTasks = new ConcurrentHashMap<>();
         pcs = new PropertyChangeSupport(this);
-        healthCheckExecutor = Executors.newScheduledThreadPool(1);
+        healthCheckScheduler = new TimingWheel();
+
+        // Name lookups for all probe types share one cache
+        dnsCache = new DnsCache();
+        probes = new EnumMap<>(Config.ProbeType.class);
+        HttpHealthProbe httpProbe = new HttpHealthProbe(probeEngine, dnsCache);
+        probes.put(Config.ProbeType.HTTP, httpProbe);
+        probes.put(Config.ProbeType.HTTP_HEAD, httpProbe);
+        probes.put(Config.ProbeType.TCP, new TcpConnectProbe(dnsCache));
+        endpointProbes = new EndpointProbeCoordinator();
+    }
+
+    public ProbeEngine getProbeEngine() {
+        return probeEngine;
+    }
+
+    /**
+     * Returns the host name cache used by all health probes, for its hit rate and lookup latency.
+     */
+    public DnsCache getDnsCache() {
+        return dnsCache;
+    }
+
+    /**
+     * Sets the store every probe result is appended to, or null to keep history in memory only.
+     * The caller owns the store and closes it after {@link #shutdown()}.
+     */
+    public void setProbeHistoryStore(ProbeHistoryStore probeHistoryStore) {
+        this.probeHistoryStore = probeHistoryStore;
+    }
+
+    public ProbeHistoryStore getProbeHistoryStore() {
+        return probeHistoryStore;
+    }
+
+    /**
+     * Returns the number of health check probes that have been sent but not yet completed.
+     */
+    public int getProbesInFlight() {
+        return probesInFlight.get();
+    }
+
+    /**
+     * Returns the total number of health check probes completed since this manager was created.
+     */
+    public long getProbesCompleted() {
+        return probesCompleted.get();
+    }
+
+    /**
+     * Returns the number of health checks answered by a probe shared with another server on the same endpoint.
+     */
+    public long getProbesDeduplicated() {
+        return endpointProbes.getCacheHits() + endpointProbes.getCoalescedProbes();
+    }
+
+    /**
+     * Returns how late the health check scheduler started its most recent tick, in nanoseconds.
+     */
+    public long getSchedulerLagNanos() {
+        return healthCheckScheduler.getLastTickLagNanos();
+    }
 
-        // Create a shared HttpClient instance for all health checks
-        httpClient = HttpClient.newBuilder()
-                .connectTimeout(Duration.ofSeconds(5))
-                .executor(Executors.newCachedThreadPool())
-                .build();
+    /**
+     * Returns the number of scheduled health checks skipped because the server's circuit breaker was open.
+     */
+    public long getProbesSkipped() {
+        return probesSkipped.get();
     }
 
+    /**
+     * Adds a server and starts checking it. A server already registered under the same id is removed first,
+     * so that it stops being checked rather than being probed alongside its replacement forever.
+     */
     public void addServer(Server server) {
-        servers.put(server.getId(), server);
+        if (servers.contains(server.getId())) {
+            removeServer(server.getId());
+        }
+        servers.put(server);
+        endpointProbes.retain(server.getConfig());
 
         // Listen to server status changes
         server.addPropertyChangeListener(Server.PROP_STATUS, evt -> {
@@ -65,6 +158,7 @@ public class ServerManager {
             stopHealthCheckForServer(id);
 
             servers.remove(id);
+            endpointProbes.release(server.getConfig());
             pcs.firePropertyChange(PROP_SERVER_REMOVED, server, null);
 
             if (selectedServer != null && selectedServer.getId().equals(id)) {
@@ -73,12 +167,48 @@ public class ServerManager {
         }
     }
 
+    /**
+     * Changes a server's configuration while keeping the server itself, with its status, latency and health
+     * history and circuit breaker. Its health check is only rescheduled if the interval changed.
+     * Does nothing if there is no server with this id.
+     */
+    public void updateServer(Id id, Config config) {
+        Server server = servers.get(id);
+        if (server == null) {
+            return;
+        }
+        Config previous = server.getConfig();
+        endpointProbes.retain(config);
+        server.setConfig(config);
+        endpointProbes.release(previous);
+
+        if (!previous.getHost().equals(config.getHost()) || previous.getPort() != config.getPort()
+                || previous.getProbeType() != config.getProbeType()) {
+            // Probes may keep per-server state, such as a prepared request, for the old address
+            for (HealthProbe probe : probes.values()) {
+                probe.forget(id);
+            }
+        }
+        if (previous.getCheckIntervalSeconds() != config.getCheckIntervalSeconds()) {
+            startHealthCheckForServer(server); // cancels the task at the old interval
+        }
+
+        pcs.firePropertyChange(PROP_SERVER_UPDATED, previous, server);
+    }
+
     public Server getServer(Id id) {
         return servers.get(id);
     }
 
+    /**
+     * Returns an immutable snapshot of all servers. Repeated calls share the same list until a server is added or removed.
+     */
     public List<Server> getAllServers() {
-        return new ArrayList<>(servers.values());
+        return servers.snapshot();
+    }
+
+    public int getServerCount() {
+        return servers.size();
     }
 
     public void setSelectedServer(Server server) {
@@ -110,64 +240,101 @@ public class ServerManager {
     private void startHealthCheckForServer(Server server) {
         Runnable healthCheck = () -> checkServerHealth(server);
 
-        // Schedule health check every 10 seconds for this server
-        ScheduledFuture<?> future = healthCheckExecutor.scheduleAtFixedRate(
-                healthCheck, 0, 10, TimeUnit.SECONDS);
+        // Schedule health check at the server's own interval, starting at a random offset within it
+        long intervalMillis = TimeUnit.SECONDS.toMillis(server.getConfig().getCheckIntervalSeconds());
+        TimingWheel.Task task = healthCheckScheduler.schedulePeriodic(healthCheck, intervalMillis);
 
         // Store the scheduled task for later cancellation if needed
-        healthCheckTasks.put(server.getId(), future);
+        TimingWheel.Task previous = healthCheckTasks.put(server.getId(), task);
+        if (previous != null) {
+            previous.cancel();
+        }
     }
 
     private void stopHealthCheckForServer(Id serverId) {
-        ScheduledFuture<?> task = healthCheckTasks.get(serverId);
+        TimingWheel.Task task = healthCheckTasks.remove(serverId);
         if (task != null) {
-            task.cancel(false); // don't interrupt if running
-            healthCheckTasks.remove(serverId);
+            task.cancel(); // a probe that is already running is not interrupted
+        }
+        for (HealthProbe probe : probes.values()) {
+            probe.forget(serverId);
         }
     }
 
     private void checkServerHealth(Server server) {
-        // Create URL for the server health check
-        String url = String.format("http://%s:%d/health",
-                server.getConfig().getHost(),
-                server.getConfig().getPort());
-
-        // Create an HTTP request with a timeout
-        HttpRequest request = HttpRequest.newBuilder()
-                .uri(URI.create(url))
-                .timeout(Duration.ofSeconds(2))
-                .GET()
-                .build();
-
-        // Send the request asynchronously
-        httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding())
-                .thenApply(response -> response.statusCode() >= 200 && response.statusCode() < 300)
-                .exceptionally(ex -> false)
-                .thenAccept(isOnline -> {
-                    // Update server status on the EDT or other thread that can update UI
-                    if (isOnline) {
-                        server.setStatus(Server.Status.ONLINE);
-                    } else {
-                        server.setStatus(Server.Status.OFFLINE);
-                    }
-                });
+        // Back off servers that keep failing instead of tying up a connection attempt every interval
+        if (!server.getCircuitBreaker().tryAcquire(System.nanoTime())) {
+            probesSkipped.incrementAndGet();
+            return;
+        }
+
+        // A result another server on the same endpoint got within this interval is as good as a new probe
+        long intervalNanos = TimeUnit.SECONDS.toNanos(server.getConfig().getCheckIntervalSeconds());
+        long maxAgeNanos = intervalNanos - TimeUnit.MILLISECONDS.toNanos(healthCheckScheduler.getTickMillis());
+        sendProbe(server, maxAgeNanos);
+    }
+
+    /**
+     * Checks a server right away, regardless of its schedule and circuit breaker.
+     * A result for the same endpoint from the last {@value #ON_DEMAND_MAX_AGE_MILLIS} ms is reused.
+     */
+    public void checkServerNow(Id id) {
+        Server server = servers.get(id);
+        if (server != null) {
+            sendProbe(server, TimeUnit.MILLISECONDS.toNanos(ON_DEMAND_MAX_AGE_MILLIS));
+        }
+    }
+
+    private void sendProbe(Server server, long maxAgeNanos) {
+        HealthProbe probe = probes.get(server.getConfig().getProbeType());
+        probesInFlight.incrementAndGet();
+        endpointProbes.probe(server, probe, maxAgeNanos,
+                (isOnline, roundTripNanos) -> completeProbe(server, isOnline, roundTripNanos));
+    }
+
+    private void completeProbe(Server server, boolean isOnline, long roundTripNanos) {
+        probesInFlight.decrementAndGet();
+        probesCompleted.incrementAndGet();
+
+        // Only answered probes have a meaningful round-trip time
+        if (roundTripNanos >= 0) {
+            server.getLatencyHistogram().recordNanos(roundTripNanos);
+        }
+
+        if (isOnline) {
+            server.getCircuitBreaker().recordSuccess();
+        } else {
+            server.recordProbeFailure();
+            long intervalNanos = TimeUnit.SECONDS.toNanos(server.getConfig().getCheckIntervalSeconds());
+            server.getCircuitBreaker().recordFailure(System.nanoTime(), intervalNanos);
+        }
+
+        Server.Status status = isOnline ? Server.Status.ONLINE : Server.Status.OFFLINE;
+        long now = System.currentTimeMillis();
+        server.getHealthHistory().recordNanos(now / 1000, roundTripNanos, status);
+        ProbeHistoryStore historyStore = probeHistoryStore;
+        if (historyStore != null) {
+            historyStore.append(now, server.getId(), roundTripNanos, status);
+        }
+
+        // Update server status on the EDT or other thread that can update UI
+        server.setStatus(status);
     }
 
     public void shutdown() {
         // Cancel all health check tasks
-        for (ScheduledFuture<?> task : healthCheckTasks.values()) {
-            task.cancel(false);
+        for (TimingWheel.Task task : healthCheckTasks.values()) {
+            task.cancel();
         }
         healthCheckTasks.clear();
 
-        healthCheckExecutor.shutdown();
-        try {
-            if (!healthCheckExecutor.awaitTermination(5, TimeUnit.SECONDS)) {
-                healthCheckExecutor.shutdownNow();
-            }
-        } catch (InterruptedException e) {
-            healthCheckExecutor.shutdownNow();
+        healthCheckScheduler.shutdown();
+
+        // Abandon probes that are still waiting on a response
+        for (HealthProbe probe : new HashSet<>(probes.values())) {
+            probe.shutdown();
         }
+        dnsCache.shutdown();
     }
 
     /**
@@ -0,0 +1,79 @@
+package gui.model;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Concurrent store of servers keyed by id.
+ * Point lookups go straight to a ConcurrentHashMap. Whole-registry reads share one immutable
+ * snapshot that is rebuilt at most once per change, so repeated reads between writes neither
+ * copy nor block, and readers on probe threads never race the writer on the EDT.
+ */
+public class ServerRegistry {
+    private final ConcurrentHashMap<Id, Server> servers = new ConcurrentHashMap<>();
+    private final AtomicLong version = new AtomicLong();
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>(new Snapshot(0, List.of()));
+
+    private record Snapshot(long version, List<Server> servers) {
+    }
+
+    /**
+     * Adds or replaces a server.
+     * @return The server previously registered under the same id, or null
+     */
+    public Server put(Server server) {
+        Server previous = servers.put(server.getId(), server);
+        version.incrementAndGet();
+        return previous;
+    }
+
+    /**
+     * Removes a server.
+     * @return The removed server, or null if no server had this id
+     */
+    public Server remove(Id id) {
+        Server removed = servers.remove(id);
+        if (removed != null) {
+            version.incrementAndGet();
+        }
+        return removed;
+    }
+
+    public Server get(Id id) {
+        return servers.get(id);
+    }
+
+    public boolean contains(Id id) {
+        return servers.containsKey(id);
+    }
+
+    public int size() {
+        return servers.size();
+    }
+
+    /**
+     * Returns a live, weakly consistent view of the registered servers for iteration without copying.
+     */
+    public Collection<Server> values() {
+        return servers.values();
+    }
+
+    /**
+     * Returns an immutable list of all servers. The same instance is returned until the registry changes.
+     */
+    public List<Server> snapshot() {
+        Snapshot current = snapshot.get();
+        long currentVersion = version.get();
+        if (current.version() == currentVersion) {
+            return current.servers();
+        }
+
+        // A write raced us at most makes this snapshot newer than its version; the next read rebuilds it
+        Snapshot rebuilt = new Snapshot(currentVersion, List.copyOf(servers.values()));
+        snapshot.compareAndSet(current, rebuilt);
+        return rebuilt.servers();
+    }
+}
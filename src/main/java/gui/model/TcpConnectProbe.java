@@ -0,0 +1,212 @@
+package gui.model;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Checks a server by opening a TCP connection to its port and closing it again.
+ * All connects are non-blocking and multiplexed on one selector thread, so thousands of probes
+ * in flight cost one thread and one socket each, with no HTTP machinery involved.
+ * Host names are resolved through a {@link DnsCache} before a probe reaches the selector thread.
+ */
+public class TcpConnectProbe implements HealthProbe {
+    public static final long DEFAULT_CONNECT_TIMEOUT_MILLIS = 2000;
+
+    private final long connectTimeoutNanos;
+    private final Selector selector;
+    private final DnsCache dnsCache;
+    private final Queue<PendingConnect> submitted = new ConcurrentLinkedQueue<>();
+    // All probes share one timeout, so deadlines are ordered by submission
+    private final ArrayDeque<PendingConnect> deadlines = new ArrayDeque<>();
+    private final Thread selectorThread;
+    private volatile boolean running = true;
+
+    private static final class PendingConnect {
+        final InetSocketAddress address;
+        final Callback callback;
+        SocketChannel channel;
+        long startNanos;
+        long deadlineNanos;
+        boolean done;
+
+        PendingConnect(InetSocketAddress address, Callback callback) {
+            this.address = address;
+            this.callback = callback;
+        }
+    }
+
+    public TcpConnectProbe() {
+        this(new DnsCache(), DEFAULT_CONNECT_TIMEOUT_MILLIS);
+    }
+
+    public TcpConnectProbe(DnsCache dnsCache) {
+        this(dnsCache, DEFAULT_CONNECT_TIMEOUT_MILLIS);
+    }
+
+    public TcpConnectProbe(DnsCache dnsCache, long connectTimeoutMillis) {
+        this.dnsCache = dnsCache;
+        this.connectTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(connectTimeoutMillis);
+        try {
+            selector = Selector.open();
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to open selector for TCP probes", e);
+        }
+
+        selectorThread = new Thread(this::run, "tcp-probe-selector");
+        selectorThread.setDaemon(true);
+        selectorThread.start();
+    }
+
+    @Override
+    public void probe(Server server, Callback callback) {
+        int port = server.getConfig().getPort();
+        // Completes inline when the address is cached, so the selector thread never resolves names
+        dnsCache.resolveAsync(server.getConfig().getHost()).whenComplete((address, ex) -> {
+            if (ex != null) {
+                callback.onComplete(false, -1);
+                return;
+            }
+            InetSocketAddress socketAddress;
+            try {
+                socketAddress = new InetSocketAddress(address, port);
+            } catch (IllegalArgumentException e) {
+                callback.onComplete(false, -1);
+                return;
+            }
+            submitted.add(new PendingConnect(socketAddress, callback));
+            selector.wakeup();
+        });
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                if (submitted.isEmpty()) {
+                    selector.select(selectTimeoutMillis());
+                } else {
+                    selector.selectNow();
+                }
+            } catch (IOException | ClosedSelectorException e) {
+                break;
+            }
+
+            for (Iterator<SelectionKey> it = selector.selectedKeys().iterator(); it.hasNext(); ) {
+                SelectionKey key = it.next();
+                it.remove();
+                finishConnect(key);
+            }
+            startSubmitted();
+            expireTimedOut();
+        }
+
+        // Fail whatever is left so callers are not left waiting
+        PendingConnect pending;
+        while ((pending = deadlines.poll()) != null) {
+            if (!pending.done) {
+                fail(pending);
+            }
+        }
+        while ((pending = submitted.poll()) != null) {
+            pending.callback.onComplete(false, -1);
+        }
+    }
+
+    private long selectTimeoutMillis() {
+        PendingConnect head = deadlines.peek();
+        if (head == null) {
+            return 0; // block until a probe is submitted
+        }
+        return Math.max(1, TimeUnit.NANOSECONDS.toMillis(head.deadlineNanos - System.nanoTime()));
+    }
+
+    private void startSubmitted() {
+        PendingConnect pending;
+        while ((pending = submitted.poll()) != null) {
+            pending.startNanos = System.nanoTime();
+            try {
+                pending.channel = SocketChannel.open();
+                pending.channel.configureBlocking(false);
+                if (pending.channel.connect(pending.address)) {
+                    succeed(pending);
+                } else {
+                    pending.channel.register(selector, SelectionKey.OP_CONNECT, pending);
+                    pending.deadlineNanos = pending.startNanos + connectTimeoutNanos;
+                    deadlines.add(pending);
+                }
+            } catch (IOException | RuntimeException e) {
+                fail(pending);
+            }
+        }
+    }
+
+    private void finishConnect(SelectionKey key) {
+        PendingConnect pending = (PendingConnect) key.attachment();
+        if (pending.done) {
+            return;
+        }
+        try {
+            if (pending.channel.finishConnect()) {
+                succeed(pending);
+            }
+        } catch (IOException e) {
+            fail(pending);
+        }
+    }
+
+    private void expireTimedOut() {
+        long now = System.nanoTime();
+        PendingConnect head;
+        while ((head = deadlines.peek()) != null && (head.done || now - head.deadlineNanos >= 0)) {
+            deadlines.poll();
+            if (!head.done) {
+                fail(head);
+            }
+        }
+    }
+
+    private void succeed(PendingConnect pending) {
+        long roundTripNanos = System.nanoTime() - pending.startNanos;
+        close(pending);
+        pending.callback.onComplete(true, roundTripNanos);
+    }
+
+    private void fail(PendingConnect pending) {
+        close(pending);
+        pending.callback.onComplete(false, -1);
+    }
+
+    private void close(PendingConnect pending) {
+        pending.done = true;
+        if (pending.channel != null) {
+            try {
+                // Closing the channel also cancels its selection key
+                pending.channel.close();
+            } catch (IOException e) {
+                // Nothing useful to do for a probe socket
+            }
+        }
+    }
+
+    @Override
+    public void shutdown() {
+        running = false;
+        selector.wakeup();
+        try {
+            selectorThread.join(TimeUnit.SECONDS.toMillis(5));
+            selector.close();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            System.err.println("Failed to close TCP probe selector: " + e.getMessage());
+        }
+    }
+}
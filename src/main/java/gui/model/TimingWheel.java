@@ -0,0 +1,231 @@
+package gui.model;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Hashed timing wheel that runs periodic tasks from a single worker thread.
+ * Each task gets a random phase inside its interval, so a large batch of tasks registered
+ * at the same moment is spread evenly across the interval instead of firing in lockstep.
+ * Scheduling and cancelling are O(1); only the worker thread touches the wheel buckets.
+ */
+public class TimingWheel {
+    public static final long DEFAULT_TICK_MILLIS = 100;
+    public static final int DEFAULT_WHEEL_SIZE = 512;
+
+    private final long tickNanos;
+    private final Bucket[] wheel;
+    private final int mask;
+    private final Queue<Task> pendingAdds = new ConcurrentLinkedQueue<>();
+    private final Queue<Task> pendingCancels = new ConcurrentLinkedQueue<>();
+    private final ArrayDeque<Task> rescheduled = new ArrayDeque<>();
+    private final Thread worker;
+    private final long startTime;
+    private volatile boolean running = true;
+    private volatile long lastTickLagNanos;
+    private long tick;
+
+    public TimingWheel() {
+        this(DEFAULT_TICK_MILLIS, DEFAULT_WHEEL_SIZE);
+    }
+
+    /**
+     * @param tickMillis resolution of the wheel in milliseconds
+     * @param wheelSize number of buckets, rounded up to a power of two
+     */
+    public TimingWheel(long tickMillis, int wheelSize) {
+        if (tickMillis <= 0) {
+            throw new IllegalArgumentException("tickMillis must be positive: " + tickMillis);
+        }
+        int size = Integer.highestOneBit(Math.max(1, wheelSize - 1)) << 1;
+        this.tickNanos = TimeUnit.MILLISECONDS.toNanos(tickMillis);
+        this.wheel = new Bucket[size];
+        for (int i = 0; i < size; i++) {
+            wheel[i] = new Bucket();
+        }
+        this.mask = size - 1;
+        this.startTime = System.nanoTime();
+
+        worker = new Thread(this::run, "health-check-wheel");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /**
+     * Schedules a task to run every interval, starting at a random point within the first interval.
+     * @param task Task to run on the wheel thread; it should hand off any slow work
+     * @param intervalMillis Period between runs, at least one tick
+     * @return Handle that can be used to cancel the task
+     */
+    public Task schedulePeriodic(Runnable task, long intervalMillis) {
+        long intervalNanos = Math.max(tickNanos, TimeUnit.MILLISECONDS.toNanos(intervalMillis));
+        long jitter = ThreadLocalRandom.current().nextLong(intervalNanos);
+        Task timeout = new Task(task, intervalNanos, System.nanoTime() + jitter);
+        pendingAdds.add(timeout);
+        return timeout;
+    }
+
+    public long getTickMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(tickNanos);
+    }
+
+    /**
+     * Returns how late the most recent tick started, in nanoseconds.
+     */
+    public long getLastTickLagNanos() {
+        return lastTickLagNanos;
+    }
+
+    public void shutdown() {
+        running = false;
+        LockSupport.unpark(worker);
+        try {
+            worker.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        while (running) {
+            long deadline = startTime + (tick + 1) * tickNanos;
+            long now;
+            while (running && (now = System.nanoTime()) < deadline) {
+                LockSupport.parkNanos(this, deadline - now);
+            }
+            if (!running) {
+                break;
+            }
+            lastTickLagNanos = System.nanoTime() - deadline;
+
+            processCancels();
+            transferPending();
+            expire(wheel[(int) (tick & mask)]);
+            tick++;
+        }
+    }
+
+    private void processCancels() {
+        Task task;
+        while ((task = pendingCancels.poll()) != null) {
+            if (task.bucket != null) {
+                task.bucket.remove(task);
+            }
+        }
+    }
+
+    private void transferPending() {
+        Task task;
+        while ((task = rescheduled.poll()) != null) {
+            place(task);
+        }
+        while ((task = pendingAdds.poll()) != null) {
+            place(task);
+        }
+    }
+
+    private void place(Task task) {
+        if (task.cancelled) {
+            return;
+        }
+        long calculated = (task.deadline - startTime) / tickNanos;
+        task.remainingRounds = (calculated - tick) / wheel.length;
+        long ticks = Math.max(calculated, tick); // never schedule into the past
+        wheel[(int) (ticks & mask)].add(task);
+    }
+
+    private void expire(Bucket bucket) {
+        Task task = bucket.head;
+        while (task != null) {
+            Task next = task.next;
+            if (task.remainingRounds <= 0) {
+                bucket.remove(task);
+                if (!task.cancelled) {
+                    try {
+                        task.action.run();
+                    } catch (Throwable t) {
+                        System.err.println("Scheduled task failed: " + t.getMessage());
+                        t.printStackTrace();
+                    }
+                    // Fixed rate: keep the original phase rather than drifting by execution time
+                    task.deadline += task.intervalNanos;
+                    rescheduled.add(task);
+                }
+            } else {
+                task.remainingRounds--;
+            }
+            task = next;
+        }
+    }
+
+    /**
+     * A periodic task registered on the wheel.
+     */
+    public final class Task {
+        private final Runnable action;
+        private final long intervalNanos;
+        private long deadline;
+        private long remainingRounds;
+        private Bucket bucket;
+        private Task prev;
+        private Task next;
+        private volatile boolean cancelled;
+
+        private Task(Runnable action, long intervalNanos, long deadline) {
+            this.action = action;
+            this.intervalNanos = intervalNanos;
+            this.deadline = deadline;
+        }
+
+        /**
+         * Stops future runs of this task. A run that is already executing is not interrupted.
+         */
+        public void cancel() {
+            if (!cancelled) {
+                cancelled = true;
+                pendingCancels.add(this);
+            }
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+
+    // Doubly linked list of tasks, only accessed from the worker thread
+    private static final class Bucket {
+        private Task head;
+        private Task tail;
+
+        void add(Task task) {
+            task.bucket = this;
+            if (head == null) {
+                head = tail = task;
+            } else {
+                tail.next = task;
+                task.prev = tail;
+                tail = task;
+            }
+        }
+
+        void remove(Task task) {
+            if (task.prev != null) {
+                task.prev.next = task.next;
+            } else {
+                head = task.next;
+            }
+            if (task.next != null) {
+                task.next.prev = task.prev;
+            } else {
+                tail = task.prev;
+            }
+            task.prev = null;
+            task.next = null;
+            task.bucket = null;
+        }
+    }
+}
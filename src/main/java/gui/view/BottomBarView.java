@@ -8,6 +8,7 @@ import java.util.Date;
 public class BottomBarView extends JPanel {
     private JLabel statusLabel;
     private JLabel timeLabel;
+    private JProgressBar progressBar;
     private Timer timer;
 
     public BottomBarView() {
@@ -18,7 +19,12 @@ public class BottomBarView extends JPanel {
         timeLabel = new JLabel();
         updateTimeLabel();
 
+        progressBar = new JProgressBar();
+        progressBar.setStringPainted(true);
+        progressBar.setVisible(false);
+
         add(statusLabel, BorderLayout.WEST);
+        add(progressBar, BorderLayout.CENTER);
         add(timeLabel, BorderLayout.EAST);
 
         // Start timer to update time
@@ -42,6 +48,27 @@ public class BottomBarView extends JPanel {
         statusLabel.setText(message);
     }
 
+    /**
+     * Shows a progress bar for a long running task
+     * @param message Text shown on the bar
+     * @param value Work done so far
+     * @param maximum Total work, or 0 if not known yet
+     */
+    public void showProgress(String message, int value, int maximum) {
+        progressBar.setIndeterminate(maximum <= 0);
+        progressBar.setMaximum(Math.max(maximum, 1));
+        progressBar.setValue(value);
+        progressBar.setString(message);
+        progressBar.setVisible(true);
+    }
+
+    /**
+     * Hides the progress bar
+     */
+    public void hideProgress() {
+        progressBar.setVisible(false);
+    }
+
     /**
      * Cleans up resources
      */
@@ -1,6 +1,9 @@
 // src/main/java/gui/view/ContentView.java
 package gui.view;
 
+import gui.model.CircuitBreaker;
+import gui.model.HealthTimeSeries;
+import gui.model.LatencyHistogram;
 import gui.model.Server;
 
 import javax.swing.*;
@@ -11,6 +14,11 @@ import javax.swing.table.TableColumnModel;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.time.Instant;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.TimeUnit;
 
 public class ContentView extends JPanel {
     private JPanel contentPanel;
@@ -77,7 +85,7 @@ public class ContentView extends JPanel {
         formPanel.add(portField, gbc);
 
         // Create table for additional details
-        String[] columns = {"Property", "Value", "Description", "Extra"};
+        String[] columns = {"Property", "Value", "Description"};
         tableModel = new DefaultTableModel(columns, 0) {
             @Override
             public boolean isCellEditable(int row, int column) {
@@ -203,16 +211,79 @@ public class ContentView extends JPanel {
                 break;
         }
 
+        LatencyHistogram latency = server.getLatencyHistogram();
+        CircuitBreaker breaker = server.getCircuitBreaker();
+        HealthTimeSeries.Summary[] lastDay = summarizeLastDay(server.getHealthHistory());
         Object[][] properties = {
-                {"ID", server.getId().getId(), "Server unique identifier", "Extra Info 1"},
-                {"Status", server.getStatus(), "Current server status", "Extra Info 2"},
-                {"Full Address", server.getConfig().getHost() + ":" + server.getConfig().getPort(), "Server network address", "Extra Info 3"},
-                {"Description", "This is a sample description", "Description of the server", "Extra Info 4"}
+                {"ID", server.getId().getId(), "Server unique identifier"},
+                {"Status", server.getStatus(), "Current server status"},
+                {"Health Checks", formatBreaker(breaker), "Probing is backed off while the server keeps failing"},
+                {"Full Address", server.getConfig().getHost() + ":" + server.getConfig().getPort(), "Server network address"},
+                {"Probe", server.getConfig().getProbeType(), "How the server health is checked"},
+                {"Description", "This is a sample description", "Description of the server"},
+                {"Latency p50", formatLatency(latency, latency.getPercentileMicros(50)), "Median health check round-trip time"},
+                {"Latency p90", formatLatency(latency, latency.getPercentileMicros(90)), "90th percentile round-trip time"},
+                {"Latency p99", formatLatency(latency, latency.getPercentileMicros(99)), "99th percentile round-trip time"},
+                {"Latency max", formatLatency(latency, latency.getMaxMicros()), "Slowest health check answered"},
+                {"Availability (24h)", formatAvailability(lastDay), "Share of health checks that found the server online"},
+                {"Worst hour (24h)", formatWorstHour(lastDay), "Hour with the highest average latency"}
         };
 
         updateContent(name, host, port, status, statusColor, properties);
     }
 
+    private String formatBreaker(CircuitBreaker breaker) {
+        switch (breaker.getState()) {
+            case OPEN:
+                long retryInSeconds = breaker.getRetryInMillis(System.nanoTime()) / 1000;
+                return "Backed off, retry in " + retryInSeconds + " s";
+            case HALF_OPEN:
+                return "Retrying";
+            default:
+                return "Normal";
+        }
+    }
+
+    private String formatLatency(LatencyHistogram histogram, long micros) {
+        if (histogram.getTotalCount() == 0) {
+            return "n/a";
+        }
+        return String.format("%.1f ms", micros / 1000.0);
+    }
+
+    private HealthTimeSeries.Summary[] summarizeLastDay(HealthTimeSeries history) {
+        long now = System.currentTimeMillis() / 1000;
+        return history.downsample(now - TimeUnit.DAYS.toSeconds(1), now + 1, 24);
+    }
+
+    private String formatAvailability(HealthTimeSeries.Summary[] hours) {
+        int checks = 0;
+        int online = 0;
+        for (HealthTimeSeries.Summary hour : hours) {
+            checks += hour.getChecks();
+            online += hour.getOnlineChecks();
+        }
+        if (checks == 0) {
+            return "n/a";
+        }
+        return String.format("%.2f%% of %d checks", 100.0 * online / checks, checks);
+    }
+
+    private String formatWorstHour(HealthTimeSeries.Summary[] hours) {
+        HealthTimeSeries.Summary worst = null;
+        for (HealthTimeSeries.Summary hour : hours) {
+            if (worst == null || hour.getAverageLatencyMillis() > worst.getAverageLatencyMillis()) {
+                worst = hour;
+            }
+        }
+        if (worst == null || worst.getAverageLatencyMillis() < 0) {
+            return "n/a";
+        }
+        LocalTime start = LocalTime.ofInstant(Instant.ofEpochSecond(worst.getStartEpochSecond()), ZoneId.systemDefault());
+        return String.format("%s, avg %.1f ms, max %d ms",
+                start.truncatedTo(ChronoUnit.MINUTES), worst.getAverageLatencyMillis(), worst.getMaxLatencyMillis());
+    }
+
     // Helper for context menu
     public boolean hasSelectedServer() {
         return currentServer != null;
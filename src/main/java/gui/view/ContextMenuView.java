@@ -1,15 +1,17 @@
 package gui.view;
 
+import gui.model.Server;
+
 import javax.swing.*;
 import java.awt.event.MouseEvent;
 import javax.swing.tree.TreePath;
-import javax.swing.tree.DefaultMutableTreeNode;
 
 public class ContextMenuView extends JPopupMenu {
     // Menu items as instance variables so they can be accessed by the controller
     private final JMenuItem addServerItem;
     private final JMenuItem editServerItem;
     private final JMenuItem deleteServerItem;
+    private final JMenuItem checkNowItem;
 
 
     public ContextMenuView() {
@@ -17,10 +19,12 @@ public class ContextMenuView extends JPopupMenu {
         addServerItem = new JMenuItem("Add Server");
         editServerItem = new JMenuItem("Edit Server");
         deleteServerItem = new JMenuItem("Delete Server");
+        checkNowItem = new JMenuItem("Check Now");
 
         // Add items to popup menu
         add(addServerItem);
         add(editServerItem);
+        add(checkNowItem);
         addSeparator();
         add(deleteServerItem);
     }
@@ -42,16 +46,16 @@ public class ContextMenuView extends JPopupMenu {
             sideBarView.setSelectionPath(path);
 
             // Enable/disable menu items based on selection
-            DefaultMutableTreeNode node = (DefaultMutableTreeNode) path.getLastPathComponent();
-            boolean isRoot = node.isRoot();
-            boolean isServerNode = !isRoot && node.getUserObject() != null;
+            boolean isServerNode = path.getLastPathComponent() instanceof Server;
 
             editServerItem.setEnabled(isServerNode);
             deleteServerItem.setEnabled(isServerNode);
+            checkNowItem.setEnabled(isServerNode);
         } else {
             // If clicked outside any node, only enable Add Server
             editServerItem.setEnabled(false);
             deleteServerItem.setEnabled(false);
+            checkNowItem.setEnabled(false);
         }
 
         // Show context menu
@@ -63,6 +67,7 @@ public class ContextMenuView extends JPopupMenu {
         // For content view, only enable add server by default
         editServerItem.setEnabled(contentView.hasSelectedServer());
         deleteServerItem.setEnabled(contentView.hasSelectedServer());
+        checkNowItem.setEnabled(contentView.hasSelectedServer());
 
         // Show context menu
         show(e.getComponent(), e.getX(), e.getY());
@@ -80,4 +85,8 @@ public class ContextMenuView extends JPopupMenu {
     public JMenuItem getDeleteServerItem() {
         return deleteServerItem;
     }
+
+    public JMenuItem getCheckNowItem() {
+        return checkNowItem;
+    }
 }
\ No newline at end of file
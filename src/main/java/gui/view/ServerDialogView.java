@@ -1,5 +1,7 @@
 package gui.view;
 
+import gui.model.Config;
+
 import javax.swing.*;
 import java.awt.*;
 
@@ -7,6 +9,7 @@ public class ServerDialogView extends JDialog {
     private JTextField nameField;
     private JTextField hostField;
     private JTextField portField;
+    private JComboBox<Config.ProbeType> probeTypeBox;
     private JButton okButton;
     private JButton cancelButton;
     private boolean isEditMode; // Flag to indicate if it's edit mode
@@ -16,7 +19,7 @@ public class ServerDialogView extends JDialog {
         this.isEditMode = isEditMode;
         setDefaultCloseOperation(JDialog.DISPOSE_ON_CLOSE);
         setLayout(new BorderLayout());
-        setSize(300, 200);
+        setSize(300, 240);
         setLocationRelativeTo(parent); // Center on parent
 
         JPanel inputPanel = new JPanel();
@@ -25,6 +28,7 @@ public class ServerDialogView extends JDialog {
         nameField = new JTextField(20);
         hostField = new JTextField("localhost", 20);
         portField = new JTextField("8080", 5);
+        probeTypeBox = new JComboBox<>(Config.ProbeType.values());
 
         inputPanel.add(new JLabel("Server Name:"));
         inputPanel.add(nameField);
@@ -32,6 +36,8 @@ public class ServerDialogView extends JDialog {
         inputPanel.add(hostField);
         inputPanel.add(new JLabel("Port:"));
         inputPanel.add(portField);
+        inputPanel.add(new JLabel("Probe:"));
+        inputPanel.add(probeTypeBox);
 
         JPanel buttonPanel = new JPanel();
         okButton = new JButton("OK");
@@ -44,10 +50,11 @@ public class ServerDialogView extends JDialog {
     }
 
     // Method to set initial values for edit mode
-    public void setServerData(String name, String host, int port) {
+    public void setServerData(String name, String host, int port, Config.ProbeType probeType) {
         nameField.setText(name);
         hostField.setText(host);
         portField.setText(String.valueOf(port));
+        probeTypeBox.setSelectedItem(probeType);
     }
 
     public String getNameFieldText() {
@@ -62,6 +69,10 @@ public class ServerDialogView extends JDialog {
         return portField.getText().trim();
     }
 
+    public Config.ProbeType getSelectedProbeType() {
+        return (Config.ProbeType) probeTypeBox.getSelectedItem();
+    }
+
     public JButton getOkButton() {
         return okButton;
     }
@@ -0,0 +1,189 @@
+package gui.view;
+
+import gui.model.Id;
+import gui.model.Server;
+
+import javax.swing.event.EventListenerList;
+import javax.swing.event.TreeModelEvent;
+import javax.swing.event.TreeModelListener;
+import javax.swing.tree.TreeModel;
+import javax.swing.tree.TreePath;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tree model for the sidebar: a root with the servers as its children. The servers themselves are the
+ * tree nodes, so there is no node object per server, and they are kept in an array with an index from
+ * id to position, which makes every lookup the tree does, and adding, updating and removing a server,
+ * constant time.
+ *
+ * Removing a server moves the last one into its place instead of shifting all that follow, so the
+ * order is the order servers were added in only until the first removal.
+ * Only to be used on the EDT.
+ */
+public class ServerTreeModel implements TreeModel {
+    private final Object root;
+    private final EventListenerList listeners = new EventListenerList();
+    private final Map<Id, Integer> positions = new HashMap<>();
+    private Server[] servers = new Server[16];
+    private int size;
+
+    public ServerTreeModel(Object root) {
+        this.root = root;
+    }
+
+    /**
+     * Adds servers at the end, with one event for all of them.
+     * Servers already in the model are skipped.
+     */
+    public void addServers(List<Server> added) {
+        if (size + added.size() > servers.length) {
+            servers = Arrays.copyOf(servers, Math.max(servers.length * 2, size + added.size()));
+        }
+        int[] indices = new int[added.size()];
+        Object[] children = new Object[added.size()];
+        int count = 0;
+        for (Server server : added) {
+            if (positions.putIfAbsent(server.getId(), size) != null) {
+                continue;
+            }
+            servers[size] = server;
+            indices[count] = size;
+            children[count] = server;
+            count++;
+            size++;
+        }
+        if (count > 0) {
+            fireTreeNodesInserted(Arrays.copyOf(indices, count), Arrays.copyOf(children, count));
+        }
+    }
+
+    /**
+     * Removes a server.
+     * @return Whether a server with this id was in the model
+     */
+    public boolean removeServer(Id id) {
+        Integer position = positions.remove(id);
+        if (position == null) {
+            return false;
+        }
+        int index = position;
+        int last = size - 1;
+        Server removed = servers[index];
+        if (index != last) {
+            // The removed row shows the last server, then the last row goes. The removal event names the
+            // removed server, so the tree drops its selection rather than that of the server that moved.
+            Server moved = servers[last];
+            servers[index] = moved;
+            positions.put(moved.getId(), index);
+            fireTreeNodesChanged(index, moved);
+        }
+        servers[last] = null;
+        size--;
+        fireTreeNodesRemoved(last, removed);
+        return true;
+    }
+
+    /**
+     * Redraws a server, putting this instance in place of the one with the same id.
+     * @return Whether a server with this id was in the model
+     */
+    public boolean updateServer(Server server) {
+        Integer position = positions.get(server.getId());
+        if (position == null) {
+            return false;
+        }
+        servers[position] = server;
+        fireTreeNodesChanged(position, server);
+        return true;
+    }
+
+    public void clear() {
+        Arrays.fill(servers, 0, size, null);
+        size = 0;
+        positions.clear();
+        TreeModelEvent event = new TreeModelEvent(this, new Object[]{root});
+        for (TreeModelListener listener : listeners.getListeners(TreeModelListener.class)) {
+            listener.treeStructureChanged(event);
+        }
+    }
+
+    public boolean contains(Id id) {
+        return positions.containsKey(id);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Object getRoot() {
+        return root;
+    }
+
+    @Override
+    public Object getChild(Object parent, int index) {
+        if (parent != root || index < 0 || index >= size) {
+            return null;
+        }
+        return servers[index];
+    }
+
+    @Override
+    public int getChildCount(Object parent) {
+        return parent == root ? size : 0;
+    }
+
+    @Override
+    public boolean isLeaf(Object node) {
+        return node != root;
+    }
+
+    @Override
+    public void valueForPathChanged(TreePath path, Object newValue) {
+        // Servers are not edited in the tree
+    }
+
+    @Override
+    public int getIndexOfChild(Object parent, Object child) {
+        if (parent != root || !(child instanceof Server server)) {
+            return -1;
+        }
+        Integer position = positions.get(server.getId());
+        // A replaced server has the same id as its replacement but is no longer in the tree
+        return position != null && servers[position] == server ? position : -1;
+    }
+
+    @Override
+    public void addTreeModelListener(TreeModelListener listener) {
+        listeners.add(TreeModelListener.class, listener);
+    }
+
+    @Override
+    public void removeTreeModelListener(TreeModelListener listener) {
+        listeners.remove(TreeModelListener.class, listener);
+    }
+
+    private void fireTreeNodesInserted(int[] indices, Object[] children) {
+        TreeModelEvent event = new TreeModelEvent(this, new Object[]{root}, indices, children);
+        for (TreeModelListener listener : listeners.getListeners(TreeModelListener.class)) {
+            listener.treeNodesInserted(event);
+        }
+    }
+
+    private void fireTreeNodesRemoved(int index, Object child) {
+        TreeModelEvent event = new TreeModelEvent(this, new Object[]{root}, new int[]{index}, new Object[]{child});
+        for (TreeModelListener listener : listeners.getListeners(TreeModelListener.class)) {
+            listener.treeNodesRemoved(event);
+        }
+    }
+
+    private void fireTreeNodesChanged(int index, Object child) {
+        TreeModelEvent event = new TreeModelEvent(this, new Object[]{root}, new int[]{index}, new Object[]{child});
+        for (TreeModelListener listener : listeners.getListeners(TreeModelListener.class)) {
+            listener.treeNodesChanged(event);
+        }
+    }
+}
@@ -1,78 +1,101 @@
 package gui.view;
 
+import gui.model.Id;
+import gui.model.Server;
+
 import javax.swing.*;
-import javax.swing.tree.DefaultMutableTreeNode;
-import javax.swing.tree.DefaultTreeModel;
-import java.util.HashMap;
-import java.util.Map;
+import javax.swing.tree.TreePath;
+import java.util.ArrayList;
+import java.util.List;
 
 public class SideBarView extends JTree {
-    private DefaultMutableTreeNode rootNode;
-    private DefaultTreeModel treeModel;
-    private Map<String, DefaultMutableTreeNode> serverNodes;
+    private final ServerTreeModel treeModel;
+    // Added servers not yet in the tree; they go in together, in one model event, at the end of the event-loop turn
+    private final List<Server> pendingInserts = new ArrayList<>();
 
     public SideBarView() {
-        rootNode = new DefaultMutableTreeNode("Servers");
-        treeModel = new DefaultTreeModel(rootNode);
-        serverNodes = new HashMap<>();
+        treeModel = new ServerTreeModel("Servers");
 
         setModel(treeModel);
+        // Fixed height rows let the tree lay out only the rows that changed rather than all of them,
+        // which keeps streaming in thousands of servers cheap
+        setLargeModel(true);
+        if (getRowHeight() <= 0) {
+            setRowHeight(20);
+        }
         expandRow(0);
     }
 
     /**
-     * Adds a server node to the tree
-     * @param id Unique identifier as a String
-     * @param displayName Display name to show in the tree
-     * @param userData User data to associate with the node
+     * Adds a server to the tree
+     * @param server Server to show; it is the tree node itself
      */
-    public void addServerNode(String id, String displayName, Object userData) {
-        DefaultMutableTreeNode serverNode = new DefaultMutableTreeNode(userData);
-        serverNodes.put(id, serverNode);
-
+    public void addServerNode(Server server) {
         // Add node to the model safely
-        SwingUtilities.invokeLater(() -> {
-            treeModel.insertNodeInto(serverNode, rootNode, rootNode.getChildCount());
-            // Make sure the new node is visible
-            expandPath(new javax.swing.tree.TreePath(rootNode.getPath()));
+        runOnEdt(() -> {
+            if (pendingInserts.isEmpty()) {
+                SwingUtilities.invokeLater(this::flushInserts);
+            }
+            pendingInserts.add(server);
         });
     }
 
     /**
-     * Removes a server node from the tree
-     * @param id Unique identifier of the node to remove
+     * Inserts the servers added since the last flush, so adding many servers at once costs one tree update
      */
-    public void removeServerNode(String id) {
-        DefaultMutableTreeNode node = serverNodes.get(id);
-        if (node != null) {
-            SwingUtilities.invokeLater(() -> {
-                treeModel.removeNodeFromParent(node);
-                serverNodes.remove(id);
-            });
+    private void flushInserts() {
+        if (pendingInserts.isEmpty()) {
+            return;
         }
+        treeModel.addServers(pendingInserts);
+        pendingInserts.clear();
+        // Make sure the new nodes are visible
+        expandPath(new TreePath(treeModel.getRoot()));
     }
 
     /**
-     * Updates the display of a server node
-     * @param id Unique identifier of the node to update
-     * @param userData New user data for the node
+     * Removes a server from the tree
+     * @param id Id of the server to remove
      */
-    public void updateServerNode(String id, Object userData) {
-        DefaultMutableTreeNode node = serverNodes.get(id);
-        if (node != null) {
-            SwingUtilities.invokeLater(() -> {
-                node.setUserObject(userData);
-                treeModel.nodeChanged(node);
-            });
-        }
+    public void removeServerNode(Id id) {
+        runOnEdt(() -> {
+            flushInserts();
+            treeModel.removeServer(id);
+        });
+    }
+
+    /**
+     * Updates the display of a server
+     * @param server Server to redraw
+     */
+    public void updateServerNode(Server server) {
+        runOnEdt(() -> treeModel.updateServer(server));
     }
 
     public void clearServerNodes() {
-        SwingUtilities.invokeLater(() -> {
-            serverNodes.clear();
-            rootNode.removeAllChildren();
-            treeModel.reload();
+        runOnEdt(() -> {
+            pendingInserts.clear();
+            treeModel.clear();
             expandRow(0);
         });
     }
-}
\ No newline at end of file
+
+    /**
+     * Returns the selected server, or null if none or the root is selected
+     */
+    public Server getSelectedServer() {
+        return getLastSelectedPathComponent() instanceof Server server ? server : null;
+    }
+
+    /**
+     * Runs tree changes directly when already on the EDT, which is how controllers deliver events,
+     * and queues them otherwise
+     */
+    private void runOnEdt(Runnable change) {
+        if (SwingUtilities.isEventDispatchThread()) {
+            change.run();
+        } else {
+            SwingUtilities.invokeLater(change);
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package gui.view;
 
+import gui.model.Config;
 import gui.model.Server;
 
 import javax.swing.*;
@@ -72,22 +73,48 @@ public class TopBarView extends JPanel {
 
     /**
      * Creates and returns a panel for adding a new server
-     * @return JPanel with fields for server data
+     * @return Panel with fields for server data
      */
-    public JPanel createAddServerPanel() {
-        JTextField nameField = new JTextField(20);
-        JTextField hostField = new JTextField(20);
-        JTextField portField = new JTextField("8080", 5);
-
-        JPanel panel = new JPanel(new GridLayout(0, 1));
-        panel.add(new JLabel("Server Name:"));
-        panel.add(nameField);
-        panel.add(new JLabel("Host:"));
-        panel.add(hostField);
-        panel.add(new JLabel("Port:"));
-        panel.add(portField);
-
-        return panel;
+    public AddServerPanel createAddServerPanel() {
+        return new AddServerPanel();
+    }
+
+    /**
+     * Fields for the data of a new server, read through the getters rather than by component position
+     */
+    public static class AddServerPanel extends JPanel {
+        private final JTextField nameField = new JTextField(20);
+        private final JTextField hostField = new JTextField(20);
+        private final JTextField portField = new JTextField("8080", 5);
+        private final JComboBox<Config.ProbeType> probeTypeBox = new JComboBox<>(Config.ProbeType.values());
+
+        private AddServerPanel() {
+            super(new GridLayout(0, 1));
+            add(new JLabel("Server Name:"));
+            add(nameField);
+            add(new JLabel("Host:"));
+            add(hostField);
+            add(new JLabel("Port:"));
+            add(portField);
+            add(new JLabel("Probe:"));
+            add(probeTypeBox);
+        }
+
+        public String getNameFieldText() {
+            return nameField.getText().trim();
+        }
+
+        public String getHostFieldText() {
+            return hostField.getText().trim();
+        }
+
+        public String getPortFieldText() {
+            return portField.getText().trim();
+        }
+
+        public Config.ProbeType getSelectedProbeType() {
+            return (Config.ProbeType) probeTypeBox.getSelectedItem();
+        }
     }
 
     public void setTitleColor(Color color) {
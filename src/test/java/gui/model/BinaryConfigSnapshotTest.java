@@ -0,0 +1,130 @@
+package gui.model;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BinaryConfigSnapshotTest {
+    @TempDir
+    Path directory;
+
+    private Path yamlPath;
+    private Path snapshotPath;
+    private final ConfigFileManager manager = new ConfigFileManager();
+    private final List<Server> saved = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        yamlPath = directory.resolve("config.yaml");
+        snapshotPath = BinaryConfigSnapshot.pathFor(yamlPath.toString());
+        Config tcp = new Config("DB", "shared.local", 5432, 30);
+        tcp.setProbeType(Config.ProbeType.TCP);
+        saved.add(new Server(new Id("web"), new Config("Web é", "shared.local", 443)));
+        saved.add(new Server(new Id("db"), tcp));
+        manager.setBinarySnapshotEnabled(true);
+        manager.writeConfigurations(saved, yamlPath.toString(), null);
+    }
+
+    private List<Server> read() {
+        List<Server> servers = new ArrayList<>();
+        int count = BinaryConfigSnapshot.read(snapshotPath, yamlPath, servers::add);
+        assertEquals(count < 0 ? 0 : count, servers.size(), "servers handed on");
+        return count < 0 ? null : servers;
+    }
+
+    // Changes one byte of the snapshot and, if asked, fixes up the checksum so only the change itself is wrong
+    private void patchSnapshot(int fromEnd, byte value, boolean fixChecksum) throws IOException {
+        byte[] bytes = Files.readAllBytes(snapshotPath);
+        bytes[bytes.length - fromEnd] = value;
+        if (fixChecksum) {
+            CRC32 crc = new CRC32();
+            crc.update(bytes, 0, bytes.length - 4);
+            ByteBuffer.wrap(bytes).putInt(bytes.length - 4, (int) crc.getValue());
+        }
+        Files.write(snapshotPath, bytes);
+    }
+
+    @Test
+    void roundTripsEveryField() {
+        List<Server> servers = read();
+        assertNotNull(servers);
+        assertEquals(saved, servers);
+        for (int i = 0; i < saved.size(); i++) {
+            Config expected = saved.get(i).getConfig();
+            Config actual = servers.get(i).getConfig();
+            assertEquals(expected.getName(), actual.getName());
+            assertEquals(expected.getHost(), actual.getHost());
+            assertEquals(expected.getPort(), actual.getPort());
+            assertEquals(expected.getCheckIntervalSeconds(), actual.getCheckIntervalSeconds());
+            assertEquals(expected.getProbeType(), actual.getProbeType());
+        }
+    }
+
+    @Test
+    void damagedSnapshotIsIgnored() throws IOException {
+        patchSnapshot(12, (byte) 0x7f, false);
+        assertNull(read());
+    }
+
+    @Test
+    void nothingIsHandedOnWhenALaterRecordCannotBeDecoded() throws IOException {
+        // Probe type of the last record, which a newer version could have added; the first record is fine
+        patchSnapshot(9, (byte) 99, true);
+        assertNull(read());
+    }
+
+    @Test
+    void editedYamlMakesTheSnapshotStale() throws IOException {
+        Files.writeString(yamlPath, "# edited\n", StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+        assertNull(read());
+    }
+
+    @Test
+    void touchedYamlMakesTheSnapshotStale() throws IOException {
+        FileTime modified = Files.getLastModifiedTime(yamlPath);
+        Files.setLastModifiedTime(yamlPath, FileTime.fromMillis(modified.toMillis() - 60_000));
+        assertNull(read());
+    }
+
+    @Test
+    void missingSnapshotIsIgnored() throws IOException {
+        Files.delete(snapshotPath);
+        assertNull(read());
+    }
+
+    @Test
+    void loadingFallsBackToTheYamlAndRewritesTheSnapshot() throws IOException {
+        patchSnapshot(12, (byte) 0x7f, false);
+        ConfigFileManager loader = new ConfigFileManager();
+        loader.setBinarySnapshotEnabled(true);
+
+        List<Server> servers = loader.loadConfigurations(yamlPath.toString());
+        assertEquals(saved, servers);
+        assertEquals(saved, read());
+    }
+
+    @Test
+    void readOnlyManagerDoesNotWriteSnapshots() throws IOException {
+        Files.delete(snapshotPath);
+        ConfigFileManager loader = new ConfigFileManager();
+        loader.setBinarySnapshotEnabled(true);
+        loader.setBinarySnapshotReadOnly(true);
+
+        assertEquals(saved, loader.loadConfigurations(yamlPath.toString()));
+        loader.writeConfigurations(saved, yamlPath.toString(), null);
+        assertFalse(Files.exists(snapshotPath));
+    }
+}
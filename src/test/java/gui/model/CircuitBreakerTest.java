@@ -0,0 +1,97 @@
+package gui.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CircuitBreakerTest {
+    private static final long INTERVAL = TimeUnit.SECONDS.toNanos(10);
+
+    private final CircuitBreaker breaker = new CircuitBreaker(3, TimeUnit.MINUTES.toMillis(5));
+    private long now = 1_000;
+
+    private void fail(int times) {
+        for (int i = 0; i < times; i++) {
+            assertTrue(breaker.tryAcquire(now));
+            breaker.recordFailure(now, INTERVAL);
+        }
+    }
+
+    // Waits out the backoff, then fails the half-open probe; returns the backoff that was waited out
+    private long failHalfOpenProbe() {
+        long backoff = TimeUnit.MILLISECONDS.toNanos(breaker.getRetryInMillis(now));
+        now += backoff - 1;
+        assertFalse(breaker.tryAcquire(now));
+        now++;
+        assertTrue(breaker.tryAcquire(now));
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        breaker.recordFailure(now, INTERVAL);
+        return backoff;
+    }
+
+    @Test
+    void opensAfterTheFailureThreshold() {
+        fail(2);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertEquals(0, breaker.getRetryInMillis(now));
+
+        fail(1);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertEquals(3, breaker.getConsecutiveFailures());
+        assertEquals(20_000, breaker.getRetryInMillis(now));
+        assertFalse(breaker.tryAcquire(now));
+    }
+
+    @Test
+    void backoffDoublesUpToTheMaximum() {
+        fail(3);
+        List<Long> backoffs = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            backoffs.add(TimeUnit.NANOSECONDS.toSeconds(failHalfOpenProbe()));
+        }
+        assertEquals(List.of(20L, 40L, 80L, 160L, 300L, 300L), backoffs);
+        assertEquals(300_000, breaker.getRetryInMillis(now));
+    }
+
+    @Test
+    void firstBackoffIsCappedToo() {
+        long interval = TimeUnit.MINUTES.toNanos(10);
+        for (int i = 0; i < 3; i++) {
+            breaker.recordFailure(now, interval);
+        }
+        assertEquals(TimeUnit.MINUTES.toMillis(5), breaker.getRetryInMillis(now));
+    }
+
+    @Test
+    void onlyOneHalfOpenProbeIsLetThrough() {
+        fail(3);
+        now += INTERVAL * 2;
+        assertTrue(breaker.tryAcquire(now));
+        assertFalse(breaker.tryAcquire(now));
+        assertFalse(breaker.tryAcquire(now + INTERVAL));
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        assertEquals(0, breaker.getRetryInMillis(now));
+    }
+
+    @Test
+    void successfulHalfOpenProbeClosesAndResets() {
+        fail(3);
+        failHalfOpenProbe();
+        failHalfOpenProbe();
+        now += TimeUnit.MILLISECONDS.toNanos(breaker.getRetryInMillis(now));
+        assertTrue(breaker.tryAcquire(now));
+        breaker.recordSuccess();
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertEquals(0, breaker.getConsecutiveFailures());
+
+        // Takes the full threshold to open again, and starts over from the initial backoff
+        fail(2);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        fail(1);
+        assertEquals(20_000, breaker.getRetryInMillis(now));
+    }
+}
@@ -0,0 +1,304 @@
+package gui.model;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConfigFileManagerTest {
+    // Bare list without ids, as written before schema version 2
+    private static final String VERSION_1 = """
+            - server: {name: A, host: a.local, port: 80}
+            - server: {name: B, host: b.local, port: 81}
+            """;
+
+    @TempDir
+    Path directory;
+
+    private final ConfigFileManager manager = new ConfigFileManager();
+
+    private Path writeFile(String name, String content) throws IOException {
+        Path file = directory.resolve(name);
+        Files.writeString(file, content, StandardCharsets.UTF_8);
+        return file;
+    }
+
+    private static List<String> names(List<Server> servers) {
+        List<String> names = new ArrayList<>();
+        for (Server server : servers) {
+            names.add(server.getConfig().getName());
+        }
+        return names;
+    }
+
+    @Test
+    void loadsEveryField() throws IOException {
+        Path file = writeFile("servers.yaml", """
+                version: 2
+                servers:
+                  - id: web
+                    server: {name: Web, host: example.org, port: 443, interval: 30, probe: tcp}
+                  - id: db
+                    server: {name: DB, host: db.local, port: 5432}
+                """);
+        List<Server> servers = new ArrayList<>();
+        assertTrue(manager.loadConfigurations(file.toString(), servers::add).isEmpty());
+
+        assertEquals(2, servers.size());
+        Server web = servers.get(0);
+        assertEquals(new Id("web"), web.getId());
+        assertEquals("example.org", web.getConfig().getHost());
+        assertEquals(443, web.getConfig().getPort());
+        assertEquals(30, web.getConfig().getCheckIntervalSeconds());
+        assertEquals(Config.ProbeType.TCP, web.getConfig().getProbeType());
+        Server db = servers.get(1);
+        assertEquals(Config.DEFAULT_CHECK_INTERVAL_SECONDS, db.getConfig().getCheckIntervalSeconds());
+        assertEquals(Config.ProbeType.HTTP, db.getConfig().getProbeType());
+    }
+
+    @Test
+    void malformedEntriesAreSkippedAndReported() throws IOException {
+        Path file = writeFile("servers.yaml", """
+                version: 2
+                servers:
+                  - id: a
+                    server: {name: A, host: a.local, port: 80}
+                  - id: b
+                    server: {name: B, host: b.local}
+                  - id: c
+                    server: {name: C, host: c.local, port: 70000}
+                  - id: d
+                    server: {name: D, host: d.local, port: 80, interval: 99999999999}
+                  - id: e
+                    server: {name: E, host: e.local, port: eighty}
+                  - id: f
+                    server: {name: F, host: f.local, port: 80, probe: ping}
+                  - id: a
+                    server: {name: A again, host: a.local, port: 80}
+                  - id: g
+                    server: {name: G, host: g.local, port: 80, interval: 0}
+                  - id: h
+                    server: {name: H, host: h.local, port: 8080}
+                """);
+        List<Server> servers = new ArrayList<>();
+        List<ConfigFileManager.LoadError> errors = manager.loadConfigurations(file.toString(), servers::add);
+
+        assertEquals(List.of("A", "H"), names(servers));
+        List<Integer> entries = new ArrayList<>();
+        for (ConfigFileManager.LoadError error : errors) {
+            entries.add(error.entry());
+        }
+        assertEquals(List.of(1, 2, 3, 4, 5, 6, 7), entries);
+        assertEquals("name, host and port are required", errors.get(0).message());
+        assertEquals("port out of range: 70000", errors.get(1).message());
+        assertEquals("'interval' out of range: 99999999999", errors.get(2).message());
+        assertEquals("'port' must be a whole number, got 'eighty'", errors.get(3).message());
+        assertEquals("unknown probe type: ping", errors.get(4).message());
+        assertEquals("duplicate id: a", errors.get(5).message());
+        assertEquals("interval must be positive: 0", errors.get(6).message());
+        assertEquals(7, errors.get(1).line());
+    }
+
+    @Test
+    void nonListDocumentIsReported() throws IOException {
+        Path file = writeFile("servers.yaml", "just a string\n");
+        List<Server> servers = new ArrayList<>();
+        List<ConfigFileManager.LoadError> errors = manager.loadConfigurations(file.toString(), servers::add);
+        assertTrue(servers.isEmpty());
+        assertEquals(1, errors.size());
+        assertEquals("expected a list of servers", errors.get(0).message());
+    }
+
+    @Test
+    void missingFileLoadsNothing() {
+        List<Server> servers = new ArrayList<>();
+        assertTrue(manager.loadConfigurations(directory.resolve("absent.yaml").toString(), servers::add).isEmpty());
+        assertTrue(servers.isEmpty());
+    }
+
+    @Test
+    void savedServersLoadBack() throws IOException {
+        Config config = new Config("Web", "example.org", 443, 30);
+        config.setProbeType(Config.ProbeType.HTTP_HEAD);
+        List<Server> saved = List.of(new Server(new Id("web"), config),
+                new Server(new Id("db"), new Config("DB", "db.local", 5432)));
+        Path file = directory.resolve("servers.yaml");
+        manager.writeConfigurations(saved, file.toString(), "Saved by a test");
+
+        List<Server> loaded = new ConfigFileManager().loadConfigurations(file.toString());
+        assertEquals(saved, loaded);
+        assertEquals(Config.ProbeType.HTTP_HEAD, loaded.get(0).getConfig().getProbeType());
+        assertEquals(30, loaded.get(0).getConfig().getCheckIntervalSeconds());
+        assertEquals("Saved by a test", manager.readHeaderComment(file.toString()));
+    }
+
+    private Path writeShards() throws IOException {
+        Path shards = Files.createDirectory(directory.resolve("servers"));
+        Files.writeString(shards.resolve("a.yaml"), """
+                version: 2
+                servers:
+                  - id: a1
+                    server: {name: A1, host: a.local, port: 80}
+                  - id: a2
+                    server: {name: A2, host: a.local, port: 81}
+                """, StandardCharsets.UTF_8);
+        Files.writeString(shards.resolve("b.yaml"), """
+                version: 2
+                servers:
+                  - id: b1
+                    server: {name: B1, host: b.local, port: 80}
+                """, StandardCharsets.UTF_8);
+        return shards;
+    }
+
+    // Backdates every shard, so the ones a save rewrites stand out
+    private static void backdate(Path shards) throws IOException {
+        try (Stream<Path> files = Files.list(shards)) {
+            for (Path file : files.toList()) {
+                Files.setLastModifiedTime(file, FileTime.fromMillis(0));
+            }
+        }
+    }
+
+    private static boolean rewritten(Path file) throws IOException {
+        return Files.getLastModifiedTime(file).toMillis() != 0;
+    }
+
+    @Test
+    void shardsLoadInFileNameOrder() throws IOException {
+        Path shards = writeShards();
+        assertEquals(List.of("A1", "A2", "B1"), names(manager.loadConfigurations(shards.toString())));
+    }
+
+    @Test
+    void onlyChangedShardsAreRewritten() throws IOException {
+        Path shards = writeShards();
+        List<Server> servers = manager.loadConfigurations(shards.toString());
+        backdate(shards);
+
+        manager.writeConfigurations(servers, shards.toString(), null);
+        assertFalse(rewritten(shards.resolve("a.yaml")));
+        assertFalse(rewritten(shards.resolve("b.yaml")));
+
+        servers.set(1, new Server(new Id("a2"), new Config("A2 renamed", "a.local", 81)));
+        manager.writeConfigurations(servers, shards.toString(), null);
+        assertTrue(rewritten(shards.resolve("a.yaml")));
+        assertFalse(rewritten(shards.resolve("b.yaml")));
+        assertEquals(List.of("A1", "A2 renamed", "B1"), names(new ConfigFileManager().loadConfigurations(shards.toString())));
+    }
+
+    @Test
+    void changedIdRewritesTheShard() throws IOException {
+        Path shards = writeShards();
+        List<Server> servers = manager.loadConfigurations(shards.toString());
+        backdate(shards);
+
+        // Same content under another id, as when a server is replaced
+        servers.set(2, new Server(new Id("b9"), new Config("B1", "b.local", 80)));
+        manager.inheritShard(new Id("b1"), new Id("b9"));
+        manager.writeConfigurations(servers, shards.toString(), null);
+        assertFalse(rewritten(shards.resolve("a.yaml")));
+        assertTrue(rewritten(shards.resolve("b.yaml")));
+        assertEquals(new Id("b9"), new ConfigFileManager().loadConfigurations(shards.toString()).get(2).getId());
+    }
+
+    @Test
+    void newServersGoToTheDefaultShardAndEmptiedShardsAreKept() throws IOException {
+        Path shards = writeShards();
+        List<Server> servers = manager.loadConfigurations(shards.toString());
+        backdate(shards);
+
+        servers.remove(2);
+        servers.add(new Server(new Id("new"), new Config("New", "new.local", 80)));
+        manager.writeConfigurations(servers, shards.toString(), null);
+        assertFalse(rewritten(shards.resolve("a.yaml")));
+        assertTrue(rewritten(shards.resolve("b.yaml")));
+        assertEquals(List.of("A1", "A2", "New"), names(new ConfigFileManager().loadConfigurations(shards.toString())));
+        assertEquals(List.of("New"), names(new ConfigFileManager().loadConfigurations(
+                shards.resolve(ConfigFileManager.DEFAULT_SHARD).toString())));
+    }
+
+    private static List<Id> ids(List<Server> servers) {
+        List<Id> ids = new ArrayList<>();
+        for (Server server : servers) {
+            ids.add(server.getId());
+        }
+        return ids;
+    }
+
+    @Test
+    void version1FileIsMigratedWithItsPositionalIds() throws IOException {
+        Path file = writeFile("servers.yaml", VERSION_1);
+        manager.setBinarySnapshotEnabled(true);
+        List<Server> servers = manager.loadConfigurations(file.toString());
+        assertEquals(List.of(new Id("srv-0"), new Id("srv-1")), ids(servers));
+        assertTrue(manager.needsMigration(file.toString()));
+        assertTrue(manager.hasPositionalIds(file.toString()));
+        // Not until the ids are in the file itself
+        assertFalse(Files.exists(BinaryConfigSnapshot.pathFor(file.toString())));
+
+        manager.writeConfigurations(servers, file.toString(), null);
+        assertFalse(manager.needsMigration(file.toString()));
+        assertFalse(manager.hasPositionalIds(file.toString()));
+        assertTrue(Files.readString(file).contains("version: 2"));
+
+        ConfigFileManager reloaded = new ConfigFileManager();
+        assertEquals(ids(servers), ids(reloaded.loadConfigurations(file.toString())));
+        assertFalse(reloaded.needsMigration(file.toString()));
+    }
+
+    @Test
+    void version1ShardsAreMigratedEvenThoughTheirServersAreUnchanged() throws IOException {
+        Path shards = Files.createDirectory(directory.resolve("servers"));
+        Files.writeString(shards.resolve("a.yaml"), VERSION_1, StandardCharsets.UTF_8);
+        Files.writeString(shards.resolve("b.yaml"), """
+                version: 2
+                servers:
+                  - id: b1
+                    server: {name: B1, host: b.local, port: 80}
+                """, StandardCharsets.UTF_8);
+        List<Server> servers = manager.loadConfigurations(shards.toString());
+        assertEquals(List.of(new Id("a.yaml/srv-0"), new Id("a.yaml/srv-1"), new Id("b1")), ids(servers));
+        assertTrue(manager.needsMigration(shards.toString()));
+        backdate(shards);
+
+        manager.writeConfigurations(servers, shards.toString(), null);
+        assertTrue(rewritten(shards.resolve("a.yaml")));
+        assertFalse(rewritten(shards.resolve("b.yaml")));
+        assertFalse(manager.needsMigration(shards.toString()));
+
+        ConfigFileManager reloaded = new ConfigFileManager();
+        assertEquals(ids(servers), ids(reloaded.loadConfigurations(shards.toString())));
+        assertFalse(reloaded.needsMigration(shards.toString()));
+    }
+
+    @Test
+    void version2EntryWithoutIdGetsOneThatIsPersisted() throws IOException {
+        Path file = writeFile("servers.yaml", """
+                version: 2
+                servers:
+                  - id: a
+                    server: {name: A, host: a.local, port: 80}
+                  - server: {name: Added by hand, host: b.local, port: 80}
+                """);
+        List<Server> servers = manager.loadConfigurations(file.toString());
+        assertEquals(new Id("a"), servers.get(0).getId());
+        Id generated = servers.get(1).getId();
+        assertTrue(manager.needsMigration(file.toString()));
+        // Generated ids are stable from here on, unlike positional ones
+        assertFalse(manager.hasPositionalIds(file.toString()));
+
+        manager.writeConfigurations(servers, file.toString(), null);
+        assertFalse(manager.needsMigration(file.toString()));
+        assertEquals(generated, new ConfigFileManager().loadConfigurations(file.toString()).get(1).getId());
+    }
+}
@@ -0,0 +1,197 @@
+package gui.model;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConfigJournalTest {
+    @TempDir
+    Path directory;
+
+    private Path configPath;
+    private Path journalPath;
+    private final List<Server> servers = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        configPath = directory.resolve("config.yaml");
+        journalPath = directory.resolve("config.yaml.journal");
+    }
+
+    private static Server server(String id, String name) {
+        return new Server(new Id(id), new Config(name, name.toLowerCase() + ".local", 80));
+    }
+
+    // Writes without coalescing, and compacts only when asked to
+    private ConfigJournal journal(ConfigFileManager manager, int compactionThreshold) {
+        return new ConfigJournal(manager, configPath.toString(), () -> new ArrayList<>(servers), compactionThreshold, 0);
+    }
+
+    // Recovers as a new process would after a crash
+    private List<Server> recoverAfterCrash() {
+        return journal(new ConfigFileManager(), 1000).recover();
+    }
+
+    private void awaitJournalLines(int lines) throws Exception {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!Files.exists(journalPath) || Files.readAllLines(journalPath).size() < lines) {
+            assertTrue(System.currentTimeMillis() < deadline, "journal was not written");
+            Thread.sleep(5);
+        }
+    }
+
+    private static List<String> names(List<Server> servers) {
+        List<String> names = new ArrayList<>();
+        for (Server server : servers) {
+            names.add(server.getConfig().getName());
+        }
+        return names;
+    }
+
+    @Test
+    void changesAfterTheSnapshotAreReplayed() throws Exception {
+        new ConfigFileManager().writeConfigurations(List.of(server("a", "A"), server("b", "B")), configPath.toString(), null);
+        ConfigJournal journal = journal(new ConfigFileManager(), 1000);
+        assertEquals(List.of("A", "B"), names(journal.recover()));
+
+        journal.recordAdded(server("c", "C"));
+        journal.recordRemoved(server("a", "A"));
+        journal.recordUpdated(server("b", "B2"));
+        awaitJournalLines(3);
+
+        List<Server> recovered = recoverAfterCrash();
+        assertEquals(List.of("B2", "C"), names(recovered));
+        assertEquals(new Id("b"), recovered.get(0).getId());
+    }
+
+    @Test
+    void compactionWritesSnapshotAndDropsJournal() throws Exception {
+        ConfigFileManager manager = new ConfigFileManager();
+        ConfigJournal journal = journal(manager, 2);
+        assertTrue(journal.recover().isEmpty());
+
+        servers.add(server("a", "A"));
+        journal.recordAdded(servers.get(0));
+        servers.add(server("b", "B"));
+        journal.recordAdded(servers.get(1));
+        assertEquals(0, journal.getRecordsSinceCompaction());
+        journal.close();
+
+        assertFalse(Files.exists(journalPath));
+        assertFalse(Files.exists(directory.resolve("config.yaml.journal.compacting")));
+        assertEquals("journal-sequence: 2", manager.readHeaderComment(configPath.toString()));
+        assertTrue(journal.getLastCompactionNanos() >= 0);
+        assertEquals(List.of("A", "B"), names(recoverAfterCrash()));
+    }
+
+    @Test
+    void recordsCoveredByTheSnapshotAreSkipped() throws Exception {
+        ConfigJournal journal = journal(new ConfigFileManager(), 1000);
+        journal.recover();
+        servers.add(server("a", "A"));
+        journal.recordAdded(servers.get(0));
+        awaitJournalLines(1);
+        byte[] journaled = Files.readAllBytes(journalPath);
+        journal.close();
+
+        // As if the journal had not been dropped after the snapshot was written
+        Files.write(journalPath, journaled);
+        servers.clear();
+        assertEquals(List.of("A"), names(recoverAfterCrash()));
+    }
+
+    @Test
+    void tornLastRecordIsIgnored() throws Exception {
+        ConfigJournal journal = journal(new ConfigFileManager(), 1000);
+        journal.recover();
+        journal.recordAdded(server("a", "A"));
+        journal.recordAdded(server("b", "B"));
+        awaitJournalLines(2);
+
+        Files.writeString(journalPath, "3\tadd\tc\tC\tc.lo", StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+        assertEquals(List.of("A", "B"), names(recoverAfterCrash()));
+    }
+
+    @Test
+    void recordsAfterADamagedOneAreNotReplayed() throws Exception {
+        ConfigJournal journal = journal(new ConfigFileManager(), 1000);
+        journal.recover();
+        journal.recordAdded(server("a", "A"));
+        journal.recordAdded(server("b", "B"));
+        journal.recordAdded(server("c", "C"));
+        awaitJournalLines(3);
+
+        List<String> lines = Files.readAllLines(journalPath);
+        lines.set(1, lines.get(1).replace("B", "X"));
+        Files.write(journalPath, lines);
+        assertEquals(List.of("A"), names(recoverAfterCrash()));
+    }
+
+    @Test
+    void changesRecordedDuringRecoveryAreJournaledAfterTheRecoveredOnes() throws Exception {
+        ConfigJournal first = journal(new ConfigFileManager(), 1000);
+        first.recover();
+        first.recordAdded(server("a", "A"));
+        awaitJournalLines(1);
+
+        ConfigJournal[] journal = new ConfigJournal[1];
+        ConfigFileManager recordingManager = new ConfigFileManager() {
+            @Override
+            public List<Server> loadConfigurations(String filePath) {
+                // Recorded while the journal is being replayed, before its sequence is known
+                journal[0].recordAdded(server("b", "B"));
+                return super.loadConfigurations(filePath);
+            }
+        };
+        journal[0] = journal(recordingManager, 1000);
+        assertEquals(List.of("A"), names(journal[0].recover()));
+        awaitJournalLines(2);
+
+        assertEquals(List.of("A", "B"), names(recoverAfterCrash()));
+        assertTrue(Files.readAllLines(journalPath).get(1).startsWith("2\t"));
+    }
+
+    @Test
+    void pausedCompactionRunsOnResume() throws IOException {
+        ConfigFileManager manager = new ConfigFileManager();
+        ConfigJournal journal = journal(manager, 1);
+        journal.recover();
+        journal.pauseCompactions();
+        servers.add(server("a", "A"));
+        journal.recordAdded(servers.get(0));
+        assertEquals(1, journal.getRecordsSinceCompaction());
+
+        journal.resumeCompactions();
+        assertEquals(0, journal.getRecordsSinceCompaction());
+        journal.close();
+        assertEquals("journal-sequence: 1", manager.readHeaderComment(configPath.toString()));
+    }
+
+    @Test
+    void closingWhilePausedWritesNoSnapshotAndIgnoresLaterChanges() throws Exception {
+        ConfigJournal journal = journal(new ConfigFileManager(), 1);
+        journal.recover();
+        journal.pauseCompactions();
+        servers.add(server("a", "A"));
+        journal.recordAdded(servers.get(0));
+        awaitJournalLines(1);
+
+        journal.close();
+        assertFalse(Files.exists(configPath));
+        servers.add(server("b", "B"));
+        assertDoesNotThrow(() -> journal.recordAdded(servers.get(1)));
+        journal.compact();
+        journal.close();
+        assertEquals(List.of("A"), names(recoverAfterCrash()));
+    }
+}
@@ -0,0 +1,150 @@
+package gui.model;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConfigReloaderTest {
+    @TempDir
+    Path directory;
+
+    private final ServerManager serverManager = new ServerManager();
+    private final ConfigFileManager configFileManager = new ConfigFileManager();
+    private ConfigReloader reloader;
+
+    @AfterEach
+    void tearDown() {
+        if (reloader != null) {
+            reloader.stop();
+        }
+        serverManager.shutdown();
+    }
+
+    private ConfigReloader reloader() {
+        reloader = new ConfigReloader(configFileManager, serverManager, directory.resolve("config.yaml").toString(), Runnable::run);
+        return reloader;
+    }
+
+    // An hour-long interval keeps the scheduler from probing the servers during the test
+    private static Server server(String id, String name, String host) {
+        return new Server(new Id(id), new Config(name, host, 80, 3600));
+    }
+
+    private Server add(String id, String name, String host) {
+        Server server = server(id, name, host);
+        serverManager.addServer(server);
+        return server;
+    }
+
+    @Test
+    void serversAreMatchedByStableIds() {
+        Server kept = add("a", "A", "a.local");
+        Server edited = add("b", "B", "b.local");
+        add("c", "C", "c.local");
+
+        ConfigReloader.Result result = reloader().apply(List.of(
+                server("a", "A", "a.local"),
+                server("b", "B renamed", "b2.local"),
+                server("d", "D", "d.local")), true);
+
+        assertEquals(new ConfigReloader.Result(1, 1, 1, 1), result);
+        assertSame(kept, serverManager.getServer(new Id("a")));
+        // Updated in place, keeping its status, history and health check
+        assertSame(edited, serverManager.getServer(new Id("b")));
+        assertEquals("B renamed", edited.getConfig().getName());
+        assertEquals("b2.local", edited.getConfig().getHost());
+        assertNull(serverManager.getServer(new Id("c")));
+        assertNotNull(serverManager.getServer(new Id("d")));
+    }
+
+    @Test
+    void unchangedFileChangesNothing() {
+        add("a", "A", "a.local");
+        add("b", "B", "b.local");
+        List<String> events = new ArrayList<>();
+        serverManager.addPropertyChangeListener(evt -> events.add(evt.getPropertyName()));
+
+        ConfigReloader.Result result = reloader().apply(List.of(server("a", "A", "a.local"), server("b", "B", "b.local")), true);
+        assertTrue(result.isEmpty());
+        assertEquals(2, result.unchanged());
+        assertTrue(events.isEmpty(), events.toString());
+    }
+
+    @Test
+    void positionalIdsAreMatchedByContent() {
+        Server first = add("srv-0", "A", "a.local");
+        Server second = add("srv-1", "B", "b.local");
+        Server third = add("srv-2", "C", "c.local");
+
+        // The first entry was deleted by hand, so every position after it shifted
+        ConfigReloader.Result result = reloader().apply(List.of(
+                server("srv-0", "B", "b.local"),
+                server("srv-1", "C renamed", "c.local"),
+                server("srv-2", "D", "d.local")), false);
+
+        assertEquals(new ConfigReloader.Result(1, 1, 1, 1), result);
+        assertNull(serverManager.getServer(first.getId()));
+        assertSame(second, serverManager.getServer(new Id("srv-1")));
+        assertEquals("B", second.getConfig().getName());
+        assertSame(third, serverManager.getServer(new Id("srv-2")));
+        assertEquals("C renamed", third.getConfig().getName());
+        // Its positional id belongs to another server, so it is added under a new one
+        Server added = null;
+        for (Server server : serverManager.getAllServers()) {
+            if (server.getConfig().getName().equals("D")) {
+                added = server;
+            }
+        }
+        assertNotNull(added);
+        assertNotEquals(new Id("srv-2"), added.getId());
+    }
+
+    @Test
+    void duplicateServersAreMatchedOneToOne() {
+        add("a", "Same", "same.local");
+        add("b", "Same", "same.local");
+
+        ConfigReloader.Result result = reloader().apply(List.of(server("x", "Same", "same.local")), false);
+        assertEquals(new ConfigReloader.Result(0, 1, 0, 1), result);
+        assertEquals(1, serverManager.getServerCount());
+    }
+
+    @Test
+    void externalEditIsReloaded() throws Exception {
+        Path file = directory.resolve("config.yaml");
+        List<Server> saved = List.of(server("a", "A", "a.local"));
+        configFileManager.writeConfigurations(saved, file.toString(), null);
+        for (Server server : configFileManager.loadConfigurations(file.toString())) {
+            serverManager.addServer(server);
+        }
+        BlockingQueue<ConfigReloader.Result> results = new ArrayBlockingQueue<>(10);
+        reloader().addPropertyChangeListener(ConfigReloader.PROP_RELOADED,
+                evt -> results.add((ConfigReloader.Result) evt.getNewValue()));
+        reloader.start();
+
+        Files.writeString(file, """
+                version: 2
+                servers:
+                  - id: a
+                    server: {name: A, host: a.local, port: 80, interval: 3600}
+                  - id: b
+                    server: {name: B, host: b.local, port: 80, interval: 3600}
+                """, StandardCharsets.UTF_8);
+
+        ConfigReloader.Result result = results.poll(10, TimeUnit.SECONDS);
+        assertNotNull(result, "no reload");
+        assertEquals(new ConfigReloader.Result(1, 0, 0, 1), result);
+        assertNotNull(serverManager.getServer(new Id("b")));
+    }
+}
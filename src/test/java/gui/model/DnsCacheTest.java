@@ -0,0 +1,140 @@
+package gui.model;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DnsCacheTest {
+    // Local stand-in resolver: answers 10.0.0.<n> for the n-th query, fails for hosts starting with "bad"
+    private final AtomicInteger queries = new AtomicInteger();
+    private volatile CountDownLatch blockQueries = new CountDownLatch(0);
+    private final AtomicLong clock = new AtomicLong();
+    private final DnsCache cache = new DnsCache(host -> {
+        int query = queries.incrementAndGet();
+        try {
+            blockQueries.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (host.startsWith("bad")) {
+            throw new UnknownHostException(host);
+        }
+        return InetAddress.getByAddress(host, new byte[]{10, 0, 0, (byte) query});
+    }, DnsCache.DEFAULT_TTL_MILLIS, DnsCache.DEFAULT_NEGATIVE_TTL_MILLIS, clock::get);
+
+    @AfterEach
+    void tearDown() {
+        blockQueries.countDown();
+        cache.shutdown();
+    }
+
+    private void advanceSeconds(long seconds) {
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(seconds));
+    }
+
+    private int lastOctet(String host) {
+        return cache.resolveAsync(host).join().getAddress()[3];
+    }
+
+    @Test
+    void answerIsCachedUntilItsTtlExpires() {
+        assertEquals(1, lastOctet("web.local"));
+        advanceSeconds(30);
+        assertEquals(1, lastOctet("web.local"));
+        assertEquals(1, queries.get());
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+
+        advanceSeconds(31);
+        assertEquals(2, lastOctet("web.local"));
+        assertEquals(2, queries.get());
+    }
+
+    @Test
+    void failureIsCachedForTheNegativeTtl() {
+        CompletionException first = assertThrows(CompletionException.class, () -> cache.resolveAsync("bad.local").join());
+        assertInstanceOf(UnknownHostException.class, first.getCause());
+        assertEquals(1, cache.getFailures());
+
+        advanceSeconds(9);
+        CompletableFuture<InetAddress> cached = cache.resolveAsync("bad.local");
+        assertTrue(cached.isCompletedExceptionally());
+        assertEquals(1, queries.get());
+
+        advanceSeconds(2);
+        assertThrows(CompletionException.class, () -> cache.resolveAsync("bad.local").join());
+        assertEquals(2, queries.get());
+    }
+
+    @Test
+    void concurrentLookupsShareOneQuery() throws Exception {
+        blockQueries = new CountDownLatch(1);
+        List<CompletableFuture<InetAddress>> lookups = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            lookups.add(cache.resolveAsync("web.local"));
+        }
+        for (CompletableFuture<InetAddress> lookup : lookups) {
+            assertSame(lookups.get(0), lookup);
+            assertFalse(lookup.isDone());
+        }
+
+        blockQueries.countDown();
+        assertEquals(1, lookups.get(0).get(5, TimeUnit.SECONDS).getAddress()[3]);
+        assertEquals(1, queries.get());
+    }
+
+    @Test
+    void answerIsRefreshedAheadOfExpiry() throws Exception {
+        assertEquals(1, lastOctet("web.local"));
+        blockQueries = new CountDownLatch(1);
+
+        // Past 0.8 of the TTL the cached answer is still served at once, while a refresh runs
+        advanceSeconds(50);
+        CompletableFuture<InetAddress> served = cache.resolveAsync("web.local");
+        assertTrue(served.isDone());
+        assertEquals(1, served.join().getAddress()[3]);
+        assertEquals(1, cache.resolveAsync("web.local").join().getAddress()[3]);
+        assertEquals(1, cache.getRefreshes());
+
+        blockQueries.countDown();
+        long deadline = System.currentTimeMillis() + 5000;
+        while (cache.resolveAsync("web.local").join().getAddress()[3] != 2) {
+            assertTrue(System.currentTimeMillis() < deadline, "refresh did not complete");
+            Thread.sleep(5);
+        }
+        assertEquals(2, queries.get());
+    }
+
+    @Test
+    void lookupsAfterShutdownFailInsteadOfHanging() {
+        cache.shutdown();
+        for (int i = 0; i < 2; i++) {
+            CompletableFuture<InetAddress> lookup = cache.resolveAsync("web.local");
+            assertTrue(lookup.isCompletedExceptionally());
+            CompletionException e = assertThrows(CompletionException.class, lookup::join);
+            assertInstanceOf(RejectedExecutionException.class, e.getCause());
+        }
+    }
+
+    @Test
+    void shutdownFailsLookupsStillInFlight() {
+        blockQueries = new CountDownLatch(1);
+        CompletableFuture<InetAddress> lookup = cache.resolveAsync("web.local");
+        cache.shutdown();
+        // Failed by the shutdown, unless the interrupted query managed to answer first; either way it completes
+        assertDoesNotThrow(() -> lookup.handle((address, e) -> null).get(5, TimeUnit.SECONDS));
+    }
+}
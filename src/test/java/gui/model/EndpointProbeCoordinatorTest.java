@@ -0,0 +1,135 @@
+package gui.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EndpointProbeCoordinatorTest {
+    private static final long MINUTE = TimeUnit.MINUTES.toNanos(1);
+
+    private final EndpointProbeCoordinator coordinator = new EndpointProbeCoordinator();
+    private final List<Server> probed = new ArrayList<>();
+    // Callbacks of the probes sent, completed by the test when it chooses
+    private final List<HealthProbe.Callback> outstanding = new ArrayList<>();
+    private final HealthProbe probe = new HealthProbe() {
+        @Override
+        public void probe(Server server, Callback callback) {
+            probed.add(server);
+            outstanding.add(callback);
+        }
+
+        @Override
+        public void shutdown() {
+        }
+    };
+
+    private record Result(boolean online, long roundTripNanos) {
+    }
+
+    private Server server(String id, String host, int port, Config.ProbeType probeType) {
+        Config config = new Config(id, host, port);
+        config.setProbeType(probeType);
+        coordinator.retain(config);
+        return new Server(new Id(id), config);
+    }
+
+    private Server server(String id, String host) {
+        return server(id, host, 80, Config.ProbeType.HTTP);
+    }
+
+    private void check(Server server, long maxAgeNanos, List<Result> results) {
+        coordinator.probe(server, probe, maxAgeNanos, (online, roundTripNanos) -> results.add(new Result(online, roundTripNanos)));
+    }
+
+    @Test
+    void serversOnTheSameEndpointShareOneProbe() {
+        Server first = server("a", "Web.Local");
+        Server second = server("b", "  web.local ");
+        List<Result> results = new ArrayList<>();
+        check(first, MINUTE, results);
+        check(second, MINUTE, results);
+
+        assertEquals(List.of(first), probed);
+        assertEquals(1, coordinator.getCoalescedProbes());
+        assertTrue(results.isEmpty());
+
+        outstanding.get(0).onComplete(true, 5);
+        assertEquals(List.of(new Result(true, 5), new Result(true, 5)), results);
+    }
+
+    @Test
+    void bracketedIpv6HostIsTheSameEndpoint() {
+        assertEquals(EndpointProbeCoordinator.Endpoint.of(new Config("a", "[::1]", 80)),
+                EndpointProbeCoordinator.Endpoint.of(new Config("b", "::1", 80)));
+
+        List<Result> results = new ArrayList<>();
+        check(server("a", "[::1]"), MINUTE, results);
+        check(server("b", "::1"), MINUTE, results);
+        assertEquals(1, probed.size());
+    }
+
+    @Test
+    void differentPortOrProbeTypeIsProbedSeparately() {
+        List<Result> results = new ArrayList<>();
+        check(server("a", "web.local", 80, Config.ProbeType.HTTP), MINUTE, results);
+        check(server("b", "web.local", 8080, Config.ProbeType.HTTP), MINUTE, results);
+        check(server("c", "web.local", 80, Config.ProbeType.TCP), MINUTE, results);
+
+        assertEquals(3, probed.size());
+        assertEquals(0, coordinator.getCoalescedProbes());
+    }
+
+    @Test
+    void recentResultIsReusedWithinItsMaxAge() {
+        Server first = server("a", "web.local");
+        Server second = server("b", "web.local");
+        List<Result> results = new ArrayList<>();
+        check(first, MINUTE, results);
+        outstanding.get(0).onComplete(false, -1);
+
+        check(second, MINUTE, results);
+        assertEquals(1, probed.size());
+        assertEquals(1, coordinator.getCacheHits());
+        assertEquals(List.of(new Result(false, -1), new Result(false, -1)), results);
+
+        // Too old for a check that only accepts fresh results
+        check(second, 0, results);
+        assertEquals(List.of(first, second), probed);
+    }
+
+    @Test
+    void releasedEndpointForgetsItsResult() {
+        Server first = server("a", "web.local");
+        List<Result> results = new ArrayList<>();
+        check(first, MINUTE, results);
+        outstanding.get(0).onComplete(true, 5);
+
+        coordinator.release(first.getConfig());
+        Server second = server("b", "web.local");
+        check(second, MINUTE, results);
+        assertEquals(List.of(first, second), probed);
+        assertEquals(0, coordinator.getCacheHits());
+    }
+
+    @Test
+    void failingProbeStillAnswersEveryWaiter() {
+        HealthProbe broken = new HealthProbe() {
+            @Override
+            public void probe(Server server, Callback callback) {
+                throw new IllegalArgumentException("bad host");
+            }
+
+            @Override
+            public void shutdown() {
+            }
+        };
+        List<Result> results = new ArrayList<>();
+        coordinator.probe(server("a", "web.local"), broken, MINUTE,
+                (online, roundTripNanos) -> results.add(new Result(online, roundTripNanos)));
+        assertEquals(List.of(new Result(false, -1)), results);
+    }
+}
@@ -0,0 +1,134 @@
+package gui.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HealthTimeSeriesTest {
+    private record Sample(long epochSecond, int latencyMillis, Server.Status status) {
+    }
+
+    private static List<Sample> decodeAll(HealthTimeSeries series) {
+        List<Sample> samples = new ArrayList<>();
+        series.forEach(Long.MIN_VALUE, Long.MAX_VALUE,
+                (epochSecond, latencyMillis, status) -> samples.add(new Sample(epochSecond, latencyMillis, status)));
+        return samples;
+    }
+
+    private static List<Sample> record(HealthTimeSeries series, List<Sample> samples) {
+        for (Sample sample : samples) {
+            series.record(sample.epochSecond(), sample.latencyMillis(), sample.status());
+        }
+        return samples;
+    }
+
+    @Test
+    void emptySeriesHasNoSamples() {
+        HealthTimeSeries series = new HealthTimeSeries();
+        assertTrue(decodeAll(series).isEmpty());
+        assertEquals(0, series.size());
+        assertEquals(0, series.getStorageBytes());
+    }
+
+    @Test
+    void steadyChecksRoundTripAndCompressWell() {
+        HealthTimeSeries series = new HealthTimeSeries();
+        List<Sample> samples = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            samples.add(new Sample(1_700_000_000L + 10L * i, 42, Server.Status.ONLINE));
+        }
+        assertEquals(record(series, samples), decodeAll(series));
+        // One bit each for timestamp, status and latency
+        assertEquals(512, series.getStorageBytes());
+    }
+
+    @Test
+    void irregularSamplesRoundTrip() {
+        Random random = new Random(42);
+        HealthTimeSeries series = new HealthTimeSeries(1000);
+        List<Sample> samples = new ArrayList<>();
+        long timestamp = 1_700_000_000L;
+        Server.Status[] statuses = Server.Status.values();
+        for (int i = 0; i < 20_000; i++) {
+            // Mostly steady, with jitter, long gaps and repeated timestamps to exercise every delta-of-delta width
+            int kind = random.nextInt(10);
+            timestamp += kind < 6 ? 10 : kind < 8 ? random.nextInt(200) : kind < 9 ? random.nextInt(5000) : 0;
+            if (random.nextInt(1000) == 0) {
+                timestamp += 10_000_000; // Beyond the 12 bit encoding
+            }
+            int latency = switch (random.nextInt(5)) {
+                case 0 -> -1;
+                case 1 -> random.nextInt(Integer.MAX_VALUE - 1);
+                default -> 20 + random.nextInt(30);
+            };
+            Server.Status status = random.nextInt(20) == 0 ? statuses[random.nextInt(statuses.length)] : Server.Status.ONLINE;
+            samples.add(new Sample(timestamp, latency, status));
+        }
+        assertEquals(record(series, samples), decodeAll(series));
+        assertEquals(samples.size(), series.size());
+    }
+
+    @Test
+    void fullRingDropsOldestBlocks() {
+        HealthTimeSeries series = new HealthTimeSeries(2);
+        Random random = new Random(7);
+        List<Sample> samples = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            samples.add(new Sample(1000L + 10L * i, random.nextInt(100_000), Server.Status.ONLINE));
+        }
+        record(series, samples);
+
+        List<Sample> kept = decodeAll(series);
+        assertFalse(kept.isEmpty());
+        assertTrue(kept.size() < samples.size());
+        assertEquals(samples.subList(samples.size() - kept.size(), samples.size()), kept);
+        assertEquals(2 * 512, series.getStorageBytes());
+    }
+
+    @Test
+    void rangeIsInclusive() {
+        HealthTimeSeries series = new HealthTimeSeries();
+        for (int i = 0; i < 100; i++) {
+            series.record(i * 10L, i, Server.Status.ONLINE);
+        }
+        List<Long> timestamps = new ArrayList<>();
+        series.forEach(200, 300, (epochSecond, latencyMillis, status) -> timestamps.add(epochSecond));
+        assertEquals(11, timestamps.size());
+        assertEquals(200, timestamps.get(0));
+        assertEquals(300, timestamps.get(timestamps.size() - 1));
+    }
+
+    @Test
+    void recordNanosConvertsToMillis() {
+        HealthTimeSeries series = new HealthTimeSeries();
+        series.recordNanos(1, 12_345_678, Server.Status.ONLINE);
+        series.recordNanos(2, -1, Server.Status.OFFLINE);
+        assertEquals(List.of(new Sample(1, 12, Server.Status.ONLINE), new Sample(2, -1, Server.Status.OFFLINE)),
+                decodeAll(series));
+    }
+
+    @Test
+    void downsampleAggregatesPerBucket() {
+        HealthTimeSeries series = new HealthTimeSeries();
+        // First hour online at 10 ms, second hour offline without answers
+        for (long second = 0; second < 7200; second += 10) {
+            if (second < 3600) {
+                series.record(second, 10, Server.Status.ONLINE);
+            } else {
+                series.record(second, -1, Server.Status.OFFLINE);
+            }
+        }
+        HealthTimeSeries.Summary[] hours = series.downsample(0, 7200, 2);
+        assertEquals(360, hours[0].getChecks());
+        assertEquals(360, hours[0].getOnlineChecks());
+        assertEquals(10.0, hours[0].getAverageLatencyMillis());
+        assertEquals(3600, hours[1].getStartEpochSecond());
+        assertEquals(360, hours[1].getChecks());
+        assertEquals(0, hours[1].getOnlineChecks());
+        assertEquals(-1, hours[1].getAverageLatencyMillis());
+    }
+}
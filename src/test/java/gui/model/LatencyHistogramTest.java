@@ -0,0 +1,103 @@
+package gui.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyHistogramTest {
+    private final LatencyHistogram histogram = new LatencyHistogram();
+
+    private void recordMicros(long micros) {
+        histogram.recordNanos(TimeUnit.MICROSECONDS.toNanos(micros));
+    }
+
+    // Sub-buckets split each power of two in 16, so a reported value is at most 1/16 above the true one
+    private static void assertWithinBucket(long expected, long actual) {
+        assertTrue(actual >= expected && actual <= expected + expected / 16,
+                "expected about " + expected + " but was " + actual);
+    }
+
+    @Test
+    void emptyHistogramReportsZero() {
+        assertEquals(0, histogram.getTotalCount());
+        assertEquals(0, histogram.getPercentileMicros(50));
+        assertEquals(0, histogram.getMaxMicros());
+        long[] micros = new long[2];
+        histogram.getPercentilesMicros(new double[]{50, 99}, micros);
+        assertArrayEquals(new long[]{0, 0}, micros);
+    }
+
+    @Test
+    void smallValuesAreExact() {
+        for (int micros = 0; micros < 16; micros++) {
+            recordMicros(micros);
+        }
+        assertEquals(7, histogram.getPercentileMicros(50));
+        assertEquals(15, histogram.getPercentileMicros(100));
+    }
+
+    @Test
+    void percentilesOfUniformValuesAreWithinOneBucket() {
+        for (int micros = 1; micros <= 10_000; micros++) {
+            recordMicros(micros);
+        }
+        assertEquals(10_000, histogram.getTotalCount());
+        assertWithinBucket(5_000, histogram.getPercentileMicros(50));
+        assertWithinBucket(9_000, histogram.getPercentileMicros(90));
+        assertWithinBucket(9_900, histogram.getPercentileMicros(99));
+        // Never above the largest value actually recorded
+        assertEquals(10_000, histogram.getPercentileMicros(100));
+        assertEquals(10_000, histogram.getMaxMicros());
+        assertEquals(10_000L * 10_001 / 2, histogram.getSumMicros());
+    }
+
+    @Test
+    void singlePassLookupMatchesIndividualLookups() {
+        for (int micros = 1; micros <= 100_000; micros += 7) {
+            recordMicros(micros);
+        }
+        double[] percentiles = {0, 25, 50, 75, 90, 99, 99.9, 100};
+        long[] micros = new long[percentiles.length];
+        histogram.getPercentilesMicros(percentiles, micros);
+        for (int i = 0; i < percentiles.length; i++) {
+            assertEquals(histogram.getPercentileMicros(percentiles[i]), micros[i], "p" + percentiles[i]);
+        }
+    }
+
+    @Test
+    void outlierOnlyMovesTheTail() {
+        for (int i = 0; i < 999; i++) {
+            recordMicros(1_000);
+        }
+        recordMicros(2_000_000);
+        assertWithinBucket(1_000, histogram.getPercentileMicros(99));
+        assertEquals(2_000_000, histogram.getPercentileMicros(100));
+    }
+
+    @Test
+    void valuesBeyondRangeAreClampedButMaxIsKept() {
+        recordMicros(TimeUnit.SECONDS.toMicros(60));
+        assertEquals(TimeUnit.SECONDS.toMicros(60), histogram.getMaxMicros());
+        long p100 = histogram.getPercentileMicros(100);
+        assertTrue(p100 > TimeUnit.SECONDS.toMicros(8) && p100 < TimeUnit.SECONDS.toMicros(60), String.valueOf(p100));
+    }
+
+    @Test
+    void negativeTimesCountAsZero() {
+        histogram.recordNanos(-5);
+        assertEquals(1, histogram.getTotalCount());
+        assertEquals(0, histogram.getPercentileMicros(100));
+    }
+
+    @Test
+    void resetClearsEverything() {
+        recordMicros(500);
+        histogram.reset();
+        assertEquals(0, histogram.getTotalCount());
+        assertEquals(0, histogram.getSumMicros());
+        assertEquals(0, histogram.getMaxMicros());
+        assertEquals(0, histogram.getPercentileMicros(99));
+    }
+}
@@ -0,0 +1,105 @@
+package gui.model;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MetricsServerTest {
+    private ServerManager serverManager;
+    private MetricsServer metricsServer;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        serverManager = new ServerManager();
+        metricsServer = new MetricsServer(serverManager, new ConfigFileManager(), 0);
+    }
+
+    @AfterEach
+    void tearDown() {
+        metricsServer.stop();
+        serverManager.shutdown();
+    }
+
+    // An hour-long interval keeps the scheduler from probing the servers during the test
+    private Server addServer(String id, String name) {
+        Server server = new Server(new Id(id), new Config(name, "localhost", 8080, 3600));
+        serverManager.addServer(server);
+        return server;
+    }
+
+    private String scrape() {
+        return new String(metricsServer.scrape(), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void exportsOneSeriesPerServerWithItsLabels() {
+        Server web = addServer("web", "Web");
+        addServer("db", "DB");
+        web.setStatus(Server.Status.ONLINE);
+
+        String metrics = scrape();
+        assertTrue(metrics.contains("# TYPE server_manager_server_up gauge\n"), metrics);
+        assertTrue(metrics.contains("server_manager_server_up{id=\"web\",name=\"Web\",address=\"localhost:8080\"} 1\n"), metrics);
+        assertTrue(metrics.contains("server_manager_server_up{id=\"db\",name=\"DB\",address=\"localhost:8080\"} NaN\n"), metrics);
+        assertTrue(metrics.contains("server_manager_servers 2\n"), metrics);
+    }
+
+    @Test
+    void labelValuesAreEscaped() {
+        addServer("odd", "say \"hi\"\\\nbye");
+        assertTrue(scrape().contains("name=\"say \\\"hi\\\"\\\\\\nbye\""));
+    }
+
+    @Test
+    void latencySummaryIsInSeconds() {
+        Server server = addServer("web", "Web");
+        assertTrue(scrape().contains("server_manager_probe_latency_seconds{id=\"web\",name=\"Web\",address=\"localhost:8080\",quantile=\"0.5\"} NaN\n"));
+
+        server.getLatencyHistogram().recordNanos(TimeUnit.MILLISECONDS.toNanos(2));
+        server.getLatencyHistogram().recordNanos(TimeUnit.MILLISECONDS.toNanos(3));
+        String metrics = scrape();
+        assertTrue(metrics.contains("server_manager_probe_latency_seconds_sum{id=\"web\",name=\"Web\",address=\"localhost:8080\"} 0.005000\n"), metrics);
+        assertTrue(metrics.contains("server_manager_probe_latency_seconds_count{id=\"web\",name=\"Web\",address=\"localhost:8080\"} 2\n"), metrics);
+        assertTrue(metrics.contains("server_manager_config_save_duration_seconds{quantile=\"0.99\"} NaN\n"), metrics);
+    }
+
+    @Test
+    void removedAndUpdatedServersAreReflected() {
+        addServer("web", "Web");
+        addServer("db", "DB");
+        serverManager.removeServer(new Id("db"));
+        serverManager.updateServer(new Id("web"), new Config("Frontend", "example.org", 443, 3600));
+
+        String metrics = scrape();
+        assertFalse(metrics.contains("id=\"db\""), metrics);
+        assertFalse(metrics.contains("name=\"Web\""), metrics);
+        assertTrue(metrics.contains("server_manager_server_up{id=\"web\",name=\"Frontend\",address=\"example.org:443\"} NaN\n"), metrics);
+        assertTrue(metrics.contains("server_manager_servers 1\n"), metrics);
+    }
+
+    @Test
+    void servesMetricsOverHttp() throws Exception {
+        addServer("web", "Web");
+        metricsServer.start();
+        HttpClient client = HttpClient.newHttpClient();
+        URI uri = URI.create("http://localhost:" + metricsServer.getPort() + "/metrics");
+
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder(uri).build(), HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, response.statusCode());
+        assertEquals(MetricsServer.CONTENT_TYPE, response.headers().firstValue("Content-Type").orElse(null));
+        assertTrue(response.body().contains("server_manager_server_up{id=\"web\",name=\"Web\",address=\"localhost:8080\"} NaN\n"));
+
+        HttpResponse<String> post = client.send(HttpRequest.newBuilder(uri).POST(HttpRequest.BodyPublishers.noBody()).build(),
+                HttpResponse.BodyHandlers.ofString());
+        assertEquals(405, post.statusCode());
+    }
+}
@@ -0,0 +1,165 @@
+package gui.model;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProbeHistoryStoreTest {
+    private static final long HOUR = TimeUnit.HOURS.toMillis(1);
+
+    @TempDir
+    Path directory;
+
+    private final List<ProbeHistoryStore> stores = new ArrayList<>();
+    // Start of the current hour, so the records of a test stay in one bucket and within retention
+    private final long bucketStart = Math.floorDiv(System.currentTimeMillis(), HOUR) * HOUR;
+
+    private record Record(long epochMillis, long serverKey, int latencyMicros, Server.Status status) {
+    }
+
+    @AfterEach
+    void tearDown() {
+        stores.forEach(ProbeHistoryStore::close);
+    }
+
+    private ProbeHistoryStore open(int recordsPerSegment) throws IOException {
+        ProbeHistoryStore store = new ProbeHistoryStore(directory, HOUR, TimeUnit.DAYS.toMillis(1), recordsPerSegment);
+        stores.add(store);
+        return store;
+    }
+
+    private static List<Record> scanAll(ProbeHistoryStore store) throws IOException {
+        List<Record> records = new ArrayList<>();
+        store.scan(Long.MIN_VALUE, Long.MAX_VALUE,
+                (epochMillis, serverKey, latencyMicros, status) -> records.add(new Record(epochMillis, serverKey, latencyMicros, status)));
+        return records;
+    }
+
+    private static List<Long> timestamps(List<Record> records) {
+        List<Long> timestamps = new ArrayList<>();
+        for (Record record : records) {
+            timestamps.add(record.epochMillis());
+        }
+        return timestamps;
+    }
+
+    @Test
+    void appendedRecordsAreReadBack() throws IOException {
+        ProbeHistoryStore store = open(16);
+        Id web = new Id("web");
+        store.append(bucketStart + 1, web, TimeUnit.MILLISECONDS.toNanos(12), Server.Status.ONLINE);
+        store.append(bucketStart + 2, new Id("db"), -1, Server.Status.OFFLINE);
+
+        assertEquals(List.of(
+                new Record(bucketStart + 1, ProbeHistoryStore.keyOf(web), 12_000, Server.Status.ONLINE),
+                new Record(bucketStart + 2, ProbeHistoryStore.keyOf(new Id("db")), -1, Server.Status.OFFLINE)),
+                scanAll(store));
+        assertEquals(2, store.getRecordsWritten());
+
+        List<Long> webOnly = new ArrayList<>();
+        store.scan(web, Long.MIN_VALUE, Long.MAX_VALUE, (epochMillis, serverKey, latencyMicros, status) -> webOnly.add(epochMillis));
+        assertEquals(List.of(bucketStart + 1), webOnly);
+    }
+
+    @Test
+    void rangeIsInclusive() throws IOException {
+        ProbeHistoryStore store = open(16);
+        for (int i = 0; i < 10; i++) {
+            store.append(bucketStart + i, new Id("web"), 0, Server.Status.ONLINE);
+        }
+        List<Long> found = new ArrayList<>();
+        store.scan(bucketStart + 3, bucketStart + 5, (epochMillis, serverKey, latencyMicros, status) -> found.add(epochMillis));
+        assertEquals(List.of(bucketStart + 3, bucketStart + 4, bucketStart + 5), found);
+    }
+
+    @Test
+    void reopenedStoreKeepsRecordsAndFillsTheLastSegment() throws IOException {
+        ProbeHistoryStore store = open(16);
+        store.append(bucketStart + 1, new Id("web"), 0, Server.Status.ONLINE);
+        store.append(bucketStart + 2, new Id("web"), 0, Server.Status.ONLINE);
+        store.close();
+
+        ProbeHistoryStore reopened = open(16);
+        assertEquals(List.of(bucketStart + 1, bucketStart + 2), timestamps(scanAll(reopened)));
+        reopened.append(bucketStart + 3, new Id("web"), 0, Server.Status.ONLINE);
+        assertEquals(1, reopened.getSegmentCount());
+        assertEquals(List.of(bucketStart + 1, bucketStart + 2, bucketStart + 3), timestamps(scanAll(reopened)));
+    }
+
+    @Test
+    void fullSegmentRollsOver() throws IOException {
+        ProbeHistoryStore store = open(4);
+        List<Long> appended = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            store.append(bucketStart + i, new Id("web"), 0, Server.Status.ONLINE);
+            appended.add(bucketStart + i);
+        }
+        assertEquals(3, store.getSegmentCount());
+        assertEquals(appended, timestamps(scanAll(store)));
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(3, files.filter(file -> file.toString().endsWith(".seg")).count());
+        }
+    }
+
+    @Test
+    void lateResultGoesIntoTheCurrentSegment() throws IOException {
+        ProbeHistoryStore store = open(16);
+        store.append(bucketStart + 10, new Id("web"), 0, Server.Status.ONLINE);
+        // Completed just before the bucket began, but reported after the first result of the bucket
+        store.append(bucketStart - 5, new Id("web"), 0, Server.Status.ONLINE);
+
+        assertEquals(1, store.getSegmentCount());
+        assertEquals(List.of(bucketStart + 10, bucketStart - 5), timestamps(scanAll(store)));
+        List<Long> earlier = new ArrayList<>();
+        store.scan(bucketStart - HOUR, bucketStart - 1, (epochMillis, serverKey, latencyMicros, status) -> earlier.add(epochMillis));
+        assertEquals(List.of(bucketStart - 5), earlier);
+    }
+
+    @Test
+    void expiredSegmentsAreDeleted() throws IOException {
+        ProbeHistoryStore store = open(16);
+        long expired = bucketStart - TimeUnit.DAYS.toMillis(2);
+        store.append(expired, new Id("web"), 0, Server.Status.ONLINE);
+        assertEquals(1, store.getSegmentCount());
+
+        // Rolling over to the current bucket drops the segment that fell out of retention
+        store.append(bucketStart, new Id("web"), 0, Server.Status.ONLINE);
+        assertEquals(1, store.getSegmentCount());
+        assertEquals(List.of(bucketStart), timestamps(scanAll(store)));
+        assertFalse(Files.exists(directory.resolve(String.format("probes-%013d-0000.seg", expired))));
+    }
+
+    @Test
+    void existingSegmentFileIsNeverOverwritten() throws IOException {
+        ProbeHistoryStore store = open(2);
+        store.append(bucketStart, new Id("web"), 0, Server.Status.ONLINE);
+        store.append(bucketStart + 1, new Id("web"), 0, Server.Status.ONLINE);
+        Path taken = Files.writeString(directory.resolve(String.format("probes-%013d-0001.seg", bucketStart)), "not ours");
+
+        store.append(bucketStart + 2, new Id("web"), 0, Server.Status.ONLINE);
+        assertEquals("not ours", Files.readString(taken));
+        assertTrue(Files.exists(directory.resolve(String.format("probes-%013d-0002.seg", bucketStart))));
+        assertEquals(0, store.getWriteFailures());
+        assertEquals(List.of(bucketStart, bucketStart + 1, bucketStart + 2), timestamps(scanAll(store)));
+    }
+
+    @Test
+    void directoryCanOnlyBeOpenedOnce() throws IOException {
+        ProbeHistoryStore store = open(16);
+        IOException e = assertThrows(IOException.class, () -> open(16));
+        assertTrue(e.getMessage().contains("already open"), e.getMessage());
+
+        store.close();
+        assertNotNull(open(16));
+    }
+}
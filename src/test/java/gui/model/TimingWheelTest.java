@@ -0,0 +1,81 @@
+package gui.model;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimingWheelTest {
+    private final TimingWheel wheel = new TimingWheel(10, 8);
+
+    @AfterEach
+    void shutdown() {
+        wheel.shutdown();
+    }
+
+    @Test
+    void runsPeriodicTaskRepeatedly() throws InterruptedException {
+        CountDownLatch runs = new CountDownLatch(3);
+        wheel.schedulePeriodic(runs::countDown, 20);
+        assertTrue(runs.await(2, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void runsTaskWhoseIntervalSpansSeveralRotations() throws InterruptedException {
+        // 8 buckets of 10 ms make an 80 ms rotation
+        CountDownLatch runs = new CountDownLatch(2);
+        long start = System.nanoTime();
+        wheel.schedulePeriodic(runs::countDown, 200);
+        assertTrue(runs.await(2, TimeUnit.SECONDS));
+        // Two runs of a 200 ms task are at least one interval apart, whatever the first run's phase
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 190);
+    }
+
+    @Test
+    void cancelledTaskStopsRunning() throws InterruptedException {
+        AtomicInteger runs = new AtomicInteger();
+        CountDownLatch firstRun = new CountDownLatch(1);
+        TimingWheel.Task task = wheel.schedulePeriodic(() -> {
+            runs.incrementAndGet();
+            firstRun.countDown();
+        }, 20);
+        assertTrue(firstRun.await(2, TimeUnit.SECONDS));
+        task.cancel();
+        assertTrue(task.isCancelled());
+        Thread.sleep(50); // Lets a run that was already due finish
+        int afterCancel = runs.get();
+        Thread.sleep(150);
+        assertEquals(afterCancel, runs.get());
+    }
+
+    @Test
+    void taskCancelledBeforeFirstRunNeverRuns() throws InterruptedException {
+        AtomicInteger runs = new AtomicInteger();
+        TimingWheel.Task task = wheel.schedulePeriodic(runs::incrementAndGet, 20);
+        task.cancel();
+        Thread.sleep(150);
+        assertEquals(0, runs.get());
+    }
+
+    @Test
+    void failingTaskKeepsItsScheduleAndOthersRun() throws InterruptedException {
+        CountDownLatch failures = new CountDownLatch(2);
+        CountDownLatch otherRuns = new CountDownLatch(2);
+        wheel.schedulePeriodic(() -> {
+            failures.countDown();
+            throw new IllegalStateException("expected by the test");
+        }, 20);
+        wheel.schedulePeriodic(otherRuns::countDown, 20);
+        assertTrue(failures.await(2, TimeUnit.SECONDS));
+        assertTrue(otherRuns.await(2, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void rejectsNonPositiveTick() {
+        assertThrows(IllegalArgumentException.class, () -> new TimingWheel(0, 8));
+    }
+}